@@ -0,0 +1,115 @@
+package benchmarks;
+
+import animation.GameLevel;
+import gameplay.GameEnvironment;
+import graphics.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sprites.bullet.CollisionInfo;
+import sprites.collidables.Collidable;
+import utils.Consts;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closest collision queries of bullet trajectories against a game
+ * environment, from a realistic number of collidables to a stress one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+    private static final int TRAJECTORIES = 1024;
+    private static final int BULLET_STEP = 8;
+
+    @Param({"10", "100", "1000"})
+    private int collidables;
+
+    private GameEnvironment environment;
+    private double[] starts;
+    private int next = 0;
+
+    /**
+     * A plain rectangle to collide with.
+     */
+    private static final class Box implements Collidable {
+        private Rectangle rect;
+
+        /**
+         * Creates the box.
+         *
+         * @param rect its rectangle
+         */
+        private Box(Rectangle rect) {
+            this.rect = rect;
+        }
+
+        /**
+         * Not used.
+         *
+         * @param g game
+         */
+        @Override
+        public void addToGame(GameLevel g) {
+        }
+
+        /**
+         * Returns the box rectangle.
+         *
+         * @return collision shape
+         */
+        @Override
+        public Rectangle getCollisionRectangle() {
+            return rect;
+        }
+    }
+
+    /**
+     * Scatters alien sized boxes over the screen and prepares vertical,
+     * one frame long bullet trajectories at random places.
+     */
+    @Setup
+    public void setUp() {
+        Consts consts = Consts.getInstance();
+        int width = consts.getGameWidth();
+        int height = consts.getGameHeight();
+        Random random = new Random(1);
+        environment = new GameEnvironment();
+        for (int i = 0; i < collidables; i++) {
+            environment.addCollidable(new Box(new Rectangle(
+                    random.nextInt(width - 40), random.nextInt(height - 30),
+                    40, 30)));
+        }
+        starts = new double[TRAJECTORIES * 2];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = random.nextInt(i % 2 == 0 ? width : height);
+        }
+    }
+
+    /**
+     * One closest collision query.
+     *
+     * @return the collision, or null
+     */
+    @Benchmark
+    public CollisionInfo closestCollision() {
+        int i = next;
+        next = (next + 2) % starts.length;
+        double x = starts[i];
+        double y = starts[i + 1];
+        return environment.getClosestCollision(x, y, x, y - BULLET_STEP);
+    }
+}
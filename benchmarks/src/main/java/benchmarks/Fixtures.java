@@ -0,0 +1,51 @@
+package benchmarks;
+
+import animation.GameLevel;
+import gameplay.Battle;
+import headless.HeadlessAnimationRunner;
+import headless.NullDrawSurface;
+import headless.ScriptedDialogManager;
+import headless.ScriptedKeyboardSensor;
+import utils.Consts;
+import utils.Counter;
+
+import java.io.IOException;
+
+/**
+ * Builds the game objects the benchmarks run on, without a display.
+ */
+final class Fixtures {
+    /**
+     * Not to be created.
+     */
+    private Fixtures() {
+    }
+
+    /**
+     * Creates a headless runner that never presses a key.
+     *
+     * @return the runner
+     */
+    static HeadlessAnimationRunner createRunner() {
+        Consts consts = Consts.getInstance();
+        return new HeadlessAnimationRunner(consts.getFramesPerSec(),
+                new NullDrawSurface(consts.getGameWidth(),
+                        consts.getGameHeight()),
+                new ScriptedKeyboardSensor(),
+                new ScriptedDialogManager("bench", true));
+    }
+
+    /**
+     * Creates an initialized first level - ship, formation and barricades.
+     *
+     * @return the level
+     * @throws IOException problem reading the images
+     */
+    static GameLevel createLevel() throws IOException {
+        GameLevel level = new GameLevel(new Battle(1),
+                new ScriptedKeyboardSensor(), createRunner(), new Counter(0),
+                new Counter(Consts.getInstance().getLives()));
+        level.initialize();
+        return level;
+    }
+}
@@ -0,0 +1,131 @@
+package benchmarks;
+
+import animation.GameLevel;
+import gameplay.Battle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sprites.Enemy;
+import sprites.collidables.Alien;
+import utils.Consts;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moving the alien formation and removing aliens from it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormationBenchmark {
+    private static final int SWEEP_STEPS = 600;
+    private static final int FORMATIONS = 100;
+    private Battle battle;
+    private Enemy moving;
+    private double frameTime;
+
+    /**
+     * Full formations to remove the aliens from, one formation for each
+     * invocation of a batch. They are made before the batch, so making them
+     * is not measured.
+     */
+    @State(Scope.Thread)
+    public static class Formations {
+        private Battle battle;
+        private GameLevel level;
+        private Enemy[] enemies = new Enemy[FORMATIONS];
+        private Alien[][] aliens = new Alien[FORMATIONS][];
+        private int next;
+
+        /**
+         * Creates the level the formations are in.
+         *
+         * @throws IOException problem reading the images
+         */
+        @Setup(Level.Trial)
+        public void setUpTrial() throws IOException {
+            battle = new Battle(1);
+            level = Fixtures.createLevel();
+        }
+
+        /**
+         * Creates the formations of the next batch.
+         *
+         * @throws IOException problem reading the images
+         */
+        @Setup(Level.Iteration)
+        public void setUpIteration() throws IOException {
+            for (int i = 0; i < FORMATIONS; i++) {
+                List<Alien> formation = battle.aliens();
+                aliens[i] = formation.toArray(new Alien[0]);
+                enemies[i] = new Enemy(formation, battle.aliensSpeed(),
+                        level);
+            }
+            next = 0;
+        }
+    }
+
+    /**
+     * Creates the level and the formation to move.
+     *
+     * @throws IOException problem reading the images
+     */
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        battle = new Battle(1);
+        GameLevel level = Fixtures.createLevel();
+        moving = new Enemy(battle.aliens(), battle.aliensSpeed(), level);
+        frameTime = 1.0 / Consts.getInstance().getFramesPerSec();
+    }
+
+    /**
+     * Ten seconds of formation moves from the start position, walls and
+     * steps down included.
+     *
+     * @return the formation
+     */
+    @Benchmark
+    @OperationsPerInvocation(SWEEP_STEPS)
+    public Enemy moveOneStep() {
+        moving.reset(battle.aliensStartX(), battle.aliensStartY());
+        for (int i = 0; i < SWEEP_STEPS; i++) {
+            moving.moveOneStep(frameTime);
+        }
+        return moving;
+    }
+
+    /**
+     * Removes all the aliens of a formation, one by one. Each invocation
+     * takes the next formation of the batch, so the time is of a batch.
+     *
+     * @param formations the formations of the batch
+     * @return the formation
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3, batchSize = FORMATIONS)
+    @Measurement(iterations = 5, batchSize = FORMATIONS)
+    public Enemy removeAllAliens(Formations formations) {
+        int formation = formations.next++;
+        Enemy shrinking = formations.enemies[formation];
+        Alien[] aliens = formations.aliens[formation];
+        for (int i = 0; i < aliens.length; i++) {
+            shrinking.removeAlien(aliens[i]);
+        }
+        return shrinking;
+    }
+}
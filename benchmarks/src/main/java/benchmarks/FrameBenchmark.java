@@ -0,0 +1,322 @@
+package benchmarks;
+
+import biuoop.KeyboardSensor;
+import gameplay.GameFlow;
+import headless.ImageDrawSurface;
+import headless.ScriptedKeyboardSensor;
+import replay.ReplayEndedException;
+import replay.ReplayHeader;
+import replay.ReplayKeyboardSensor;
+import replay.ReplayReader;
+import utils.Consts;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Plays whole games headlessly, through the game flow, for a sweep of
+ * formation sizes and bullet densities, and times every game frame. Writes
+ * the frames and a summary (p50, p99 and max frame times and the bytes
+ * allocated per frame) as CSV, and fails if the p99 frame time of a scenario
+ * went up by more than the allowed margin over its baseline. Every game is
+ * played with the same seed, so the state hash in the summary must not
+ * change between runs of the same build.
+ * <p>
+ * Arguments: output directory, optional baseline file, optional margin
+ * (0.2 allows 20% more) and optional directory of recorded games. Every
+ * ".replay" file in the directory is played as a scenario of its own, and
+ * must reach the state hash it was recorded with. The baseline file holds
+ * a "scenario.p99" entry in microseconds for every scenario to check; the
+ * run writes the current values in that format to baseline.properties in
+ * the output directory. A baseline file that is missing, or that has no
+ * entry for a scenario of the run, fails the check.
+ */
+public final class FrameBenchmark {
+    private static final int[][] FORMATIONS = {{5, 3}, {10, 5}, {14, 7}};
+    private static final int MAX_FRAMES_PER_GAME = 200000;
+    private static final double DEFAULT_MARGIN = 0.2;
+    private static final double NANOS_PER_MICRO = 1000.0;
+    private static final long SEED = 1;
+    private static final String REPLAY = ".replay";
+
+    /**
+     * Not to be created.
+     */
+    private FrameBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args output directory, baseline file, margin and replays
+     * @throws IOException problem with the files
+     */
+    public static void main(String[] args) throws IOException {
+        File outDir = new File(args.length > 0 ? args[0] : "frame-benchmark");
+        File baselineFile = args.length > 1 ? new File(args[1]) : null;
+        double margin = args.length > 2
+                ? Double.parseDouble(args[2]) : DEFAULT_MARGIN;
+        File replayDir = args.length > 3 ? new File(args[3]) : null;
+        outDir.mkdirs();
+
+        Consts consts = Consts.getInstance();
+        ScriptedKeyboardSensor keyboard = new ScriptedKeyboardSensor()
+                .repeat(KeyboardSensor.LEFT_KEY, 0, 60, 240)
+                .repeat(KeyboardSensor.RIGHT_KEY, 120, 60, 240)
+                .repeat(KeyboardSensor.SPACE_KEY, 0, 1, 2);
+        TimingRunner runner = new TimingRunner(consts.getFramesPerSec(),
+                new ImageDrawSurface(consts.getGameWidth(),
+                        consts.getGameHeight()), keyboard);
+        runner.setMaxFrames(Long.MAX_VALUE);
+
+        // Warm the JIT up with one untimed game
+        playGame(runner, keyboard, FORMATIONS[1], false);
+
+        PrintWriter frames = new PrintWriter(
+                new FileWriter(new File(outDir, "frames.csv")));
+        PrintWriter summary = new PrintWriter(
+                new FileWriter(new File(outDir, "summary.csv")));
+        frames.println("scenario,frame,update_ns,draw_ns,allocated_bytes");
+        summary.println("scenario,frames,update_p50_us,update_p99_us,"
+                + "draw_p50_us,draw_p99_us,frame_p50_us,frame_p99_us,"
+                + "frame_max_us,allocated_bytes_per_frame,state_hash");
+        Properties results = new Properties();
+        boolean reproduced = true;
+        try {
+            for (int[] formation : FORMATIONS) {
+                for (int hell = 0; hell <= 1; hell++) {
+                    String scenario = formation[0] + "x" + formation[1]
+                            + (hell == 1 ? "-bullethell" : "-normal");
+                    FrameLog log = new FrameLog(MAX_FRAMES_PER_GAME);
+                    runner.setLog(log);
+                    String hash = playGame(runner, keyboard, formation,
+                            hell == 1);
+                    runner.setLog(null);
+                    report(scenario, log, hash, frames, summary, results);
+                }
+            }
+            for (File file : listReplays(replayDir)) {
+                String name = file.getName();
+                String scenario = "replay-"
+                        + name.substring(0, name.length() - REPLAY.length());
+                FrameLog log = new FrameLog(MAX_FRAMES_PER_GAME);
+                runner.setLog(log);
+                String hash = playReplay(runner, file);
+                runner.setLog(null);
+                if (hash == null) {
+                    reproduced = false;
+                    continue;
+                }
+                report(scenario, log, hash, frames, summary, results);
+            }
+        } finally {
+            frames.close();
+            summary.close();
+        }
+        OutputStream out = new FileOutputStream(
+                new File(outDir, "baseline.properties"));
+        try {
+            results.store(out, "p99 frame time in microseconds");
+        } finally {
+            out.close();
+        }
+
+        if (baselineFile != null
+                && !checkBaseline(results, baselineFile, margin)) {
+            System.exit(1);
+        }
+        if (!reproduced) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Writes the frames and the summary of a scenario.
+     *
+     * @param scenario the scenario's name
+     * @param log      the scenario's frames
+     * @param hash     the game's final state hash
+     * @param frames   the frames CSV
+     * @param summary  the summary CSV
+     * @param results  p99 frame times, to add the scenario's to
+     */
+    private static void report(String scenario, FrameLog log, String hash,
+                               PrintWriter frames, PrintWriter summary,
+                               Properties results) {
+        log.writeFrames(frames, scenario);
+        String row = scenario + "," + log.size() + ","
+                + micros(log.updatePercentile(50)) + ","
+                + micros(log.updatePercentile(99)) + ","
+                + micros(log.drawPercentile(50)) + ","
+                + micros(log.drawPercentile(99)) + ","
+                + micros(log.framePercentile(50)) + ","
+                + micros(log.framePercentile(99)) + ","
+                + micros(log.framePercentile(100)) + ","
+                + log.allocatedPerFrame() + "," + hash;
+        summary.println(row);
+        System.out.println(row);
+        results.setProperty(scenario + ".p99",
+                micros(log.framePercentile(99)));
+    }
+
+    /**
+     * Lists the recorded games in a directory, by name.
+     *
+     * @param dir the directory, or null
+     * @return the replay files, none if there is no directory
+     */
+    private static File[] listReplays(File dir) {
+        File[] files = dir == null ? null : dir.listFiles();
+        if (files == null) {
+            return new File[0];
+        }
+        List<File> replays = new ArrayList<File>();
+        for (File file : files) {
+            if (file.getName().endsWith(REPLAY)) {
+                replays.add(file);
+            }
+        }
+        Collections.sort(replays);
+        return replays.toArray(new File[replays.size()]);
+    }
+
+    /**
+     * Plays a recorded game and checks it reaches its recorded state hash.
+     *
+     * @param runner the runner
+     * @param file   the replay file
+     * @return the game's final state hash, null if the game did not play
+     *         as recorded
+     * @throws IOException problem with the files
+     */
+    private static String playReplay(TimingRunner runner, File file)
+            throws IOException {
+        ReplayReader reader = new ReplayReader(file);
+        try {
+            ReplayHeader header = reader.getHeader();
+            if (header.getFramesPerSec()
+                    != Consts.getInstance().getFramesPerSec()) {
+                System.out.println("SKIPPED " + file + ": recorded at "
+                        + header.getFramesPerSec() + " frames per second");
+                return null;
+            }
+            ReplayKeyboardSensor keyboard = new ReplayKeyboardSensor(reader);
+            GameFlow flow = header.createFlow(runner, keyboard);
+            flow.setScoresFile(null);
+            runner.setInputLatch(keyboard);
+            boolean gameOver = true;
+            try {
+                flow.runLevels();
+            } catch (ReplayEndedException e) {
+                gameOver = false;
+            } finally {
+                runner.setInputLatch(null);
+            }
+            if (!reader.hasEnd()) {
+                System.out.println("CUT SHORT " + file + ": the recording "
+                        + "has no end to check the game against");
+                return null;
+            }
+            if (!gameOver || reader.nextKeys() >= 0
+                    || reader.getRecordedHash()
+                    != flow.getStateHash().getValue()) {
+                System.out.println("DIVERGED " + file + ": state hash "
+                        + flow.getStateHash());
+                return null;
+            }
+            return flow.getStateHash().toString();
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Plays one game until it is over.
+     *
+     * @param runner    the runner
+     * @param keyboard  the keyboard script
+     * @param formation columns and rows of the aliens formation
+     * @param hell      true for a bullet hell game
+     * @return the game's final state hash
+     * @throws IOException problem with the files
+     */
+    private static String playGame(TimingRunner runner,
+                                 ScriptedKeyboardSensor keyboard,
+                                 int[] formation, boolean hell)
+            throws IOException {
+        GameFlow flow = new GameFlow(runner, keyboard,
+                Consts.getInstance().getLives());
+        flow.setFormation(formation[0], formation[1]);
+        flow.setBulletHell(hell);
+        flow.setSeed(SEED);
+        flow.setScoresFile(null);
+        flow.runLevels();
+        return flow.getStateHash().toString();
+    }
+
+    /**
+     * Compares the p99 frame times to the baseline.
+     *
+     * @param results      p99 frame times of this run
+     * @param baselineFile the baseline file
+     * @param margin       allowed growth over the baseline
+     * @return true if every scenario has a baseline and none got slower
+     *         than allowed
+     * @throws IOException problem reading the baseline
+     */
+    private static boolean checkBaseline(Properties results,
+                                         File baselineFile, double margin)
+            throws IOException {
+        if (!baselineFile.exists()) {
+            System.out.println("NO BASELINE at " + baselineFile);
+            return false;
+        }
+        Properties baseline = new Properties();
+        InputStream in = new FileInputStream(baselineFile);
+        try {
+            baseline.load(in);
+        } finally {
+            in.close();
+        }
+
+        boolean passed = true;
+        for (String key : results.stringPropertyNames()) {
+            String base = baseline.getProperty(key);
+            if (base == null) {
+                System.out.println("NO BASELINE for " + key + " in "
+                        + baselineFile);
+                passed = false;
+                continue;
+            }
+            double limit = Double.parseDouble(base) * (1 + margin);
+            double value = Double.parseDouble(results.getProperty(key));
+            if (value > limit) {
+                System.out.println("REGRESSION " + key + ": " + value
+                        + "us, limit " + limit + "us");
+                passed = false;
+            }
+        }
+        return passed;
+    }
+
+    /**
+     * Formats nanoseconds as microseconds.
+     *
+     * @param nanos nanoseconds
+     * @return microseconds with one decimal
+     */
+    private static String micros(long nanos) {
+        return String.format(Locale.US, "%.1f", nanos / NANOS_PER_MICRO);
+    }
+}
@@ -0,0 +1,135 @@
+package benchmarks;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+/**
+ * The per-frame measures of one scenario: update time, draw time and bytes
+ * allocated. The arrays are allocated up front, so recording a frame
+ * allocates nothing and does not show in the measures.
+ */
+final class FrameLog {
+    private long[] updateNanos;
+    private long[] drawNanos;
+    private long[] allocated;
+    private int frames = 0;
+
+    /**
+     * Creates an empty log.
+     *
+     * @param capacity most frames to record
+     */
+    FrameLog(int capacity) {
+        updateNanos = new long[capacity];
+        drawNanos = new long[capacity];
+        allocated = new long[capacity];
+    }
+
+    /**
+     * Records one frame. Frames over the capacity are dropped.
+     *
+     * @param update nanoseconds the update took
+     * @param draw   nanoseconds the drawing took
+     * @param bytes  bytes allocated during the frame, -1 if unknown
+     */
+    void record(long update, long draw, long bytes) {
+        if (frames == updateNanos.length) {
+            return;
+        }
+        updateNanos[frames] = update;
+        drawNanos[frames] = draw;
+        allocated[frames] = bytes;
+        frames++;
+    }
+
+    /**
+     * Returns the number of recorded frames.
+     *
+     * @return frames count
+     */
+    int size() {
+        return frames;
+    }
+
+    /**
+     * Writes a CSV row for every recorded frame.
+     *
+     * @param out      the CSV writer
+     * @param scenario the scenario name
+     */
+    void writeFrames(PrintWriter out, String scenario) {
+        for (int i = 0; i < frames; i++) {
+            out.println(scenario + "," + i + "," + updateNanos[i] + ","
+                    + drawNanos[i] + "," + allocated[i]);
+        }
+    }
+
+    /**
+     * Returns a percentile of the update times.
+     *
+     * @param p percentile, between 0 and 100
+     * @return nanoseconds
+     */
+    long updatePercentile(double p) {
+        return percentile(Arrays.copyOf(updateNanos, frames), p);
+    }
+
+    /**
+     * Returns a percentile of the draw times.
+     *
+     * @param p percentile, between 0 and 100
+     * @return nanoseconds
+     */
+    long drawPercentile(double p) {
+        return percentile(Arrays.copyOf(drawNanos, frames), p);
+    }
+
+    /**
+     * Returns a percentile of the whole frame times, update and draw.
+     *
+     * @param p percentile, between 0 and 100
+     * @return nanoseconds
+     */
+    long framePercentile(double p) {
+        long[] frameNanos = new long[frames];
+        for (int i = 0; i < frames; i++) {
+            frameNanos[i] = updateNanos[i] + drawNanos[i];
+        }
+        return percentile(frameNanos, p);
+    }
+
+    /**
+     * Returns the average bytes allocated per frame.
+     *
+     * @return bytes, -1 if unknown
+     */
+    long allocatedPerFrame() {
+        if (frames == 0) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0; i < frames; i++) {
+            if (allocated[i] < 0) {
+                return -1;
+            }
+            total += allocated[i];
+        }
+        return total / frames;
+    }
+
+    /**
+     * Finds a percentile by the nearest rank.
+     *
+     * @param values the values, sorted in place
+     * @param p      percentile, between 0 and 100
+     * @return the value at the percentile, 0 if there are no values
+     */
+    private static long percentile(long[] values, double p) {
+        if (values.length == 0) {
+            return 0;
+        }
+        Arrays.sort(values);
+        int rank = (int) Math.ceil(p / 100 * values.length);
+        return values[Math.max(0, Math.min(values.length - 1, rank - 1))];
+    }
+}
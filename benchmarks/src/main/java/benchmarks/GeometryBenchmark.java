@@ -0,0 +1,85 @@
+package benchmarks;
+
+import graphics.Line;
+import graphics.Point;
+import graphics.Rectangle;
+import graphics.SegmentHit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Line and rectangle intersection, the geometry under every collision query.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+    private Rectangle rect;
+    private Line hitting;
+    private Line missing;
+    private SegmentHit hit;
+
+    /**
+     * Creates a bullet sized trajectory into a block, and one next to it.
+     */
+    @Setup
+    public void setUp() {
+        rect = new Rectangle(100, 100, 40, 30);
+        hitting = new Line(new Point(120, 160), new Point(120, 120));
+        missing = new Line(new Point(160, 160), new Point(160, 120));
+        hit = new SegmentHit();
+    }
+
+    /**
+     * Closest intersection of a hitting trajectory.
+     *
+     * @return the intersection
+     */
+    @Benchmark
+    public Point closestIntersectionHit() {
+        return hitting.closestIntersectionToStartOfLine(rect);
+    }
+
+    /**
+     * Closest intersection of a missing trajectory.
+     *
+     * @return the intersection, null
+     */
+    @Benchmark
+    public Point closestIntersectionMiss() {
+        return missing.closestIntersectionToStartOfLine(rect);
+    }
+
+    /**
+     * The allocation free slab test of a hitting trajectory.
+     *
+     * @return whether it hits
+     */
+    @Benchmark
+    public boolean intersectRectangleHit() {
+        return hitting.intersectRectangle(rect, hit);
+    }
+
+    /**
+     * The allocation free slab test of a missing trajectory.
+     *
+     * @return whether it hits
+     */
+    @Benchmark
+    public boolean intersectRectangleMiss() {
+        return missing.intersectRectangle(rect, hit);
+    }
+}
@@ -0,0 +1,94 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import scores.HighScoresTable;
+import scores.ScoreInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adding to the high scores table, and saving and loading it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HighScoresBenchmark {
+    private static final int TABLE_SIZE = 5;
+    private HighScoresTable table;
+    private File file;
+    private int nextScore = 0;
+
+    /**
+     * Creates a full table and saves it to a temporary file.
+     *
+     * @throws IOException problem with the file
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        table = new HighScoresTable(TABLE_SIZE);
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            table.add(new ScoreInfo("player" + i, i * 100));
+        }
+        file = File.createTempFile("highscores", ".bench");
+        table.save(file);
+    }
+
+    /**
+     * Deletes the temporary file.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * Adds a score to a full table.
+     *
+     * @return the table
+     */
+    @Benchmark
+    public HighScoresTable add() {
+        nextScore = (nextScore + 37) % 1000;
+        table.add(new ScoreInfo("player", nextScore));
+        return table;
+    }
+
+    /**
+     * Saves the table to the file.
+     *
+     * @return the file
+     * @throws IOException problem with the file
+     */
+    @Benchmark
+    public File save() throws IOException {
+        table.save(file);
+        return file;
+    }
+
+    /**
+     * Loads the table from the file.
+     *
+     * @return the loaded table
+     * @throws IOException problem with the file
+     */
+    @Benchmark
+    public HighScoresTable loadFromFile() throws IOException {
+        return HighScoresTable.loadFromFile(file);
+    }
+}
@@ -0,0 +1,92 @@
+package benchmarks;
+
+import animation.GameLevel;
+import biuoop.DrawSurface;
+import gameplay.SpriteCollection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sprites.Sprite;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notifying all the sprites of a collection that time passed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpriteCollectionBenchmark {
+    @Param({"10", "100", "1000"})
+    private int sprites;
+
+    private SpriteCollection collection;
+
+    /**
+     * A sprite that only counts the time passed.
+     */
+    private static final class Clock implements Sprite {
+        private double time = 0;
+
+        /**
+         * Draws nothing.
+         *
+         * @param d the draw surface
+         */
+        @Override
+        public void drawOn(DrawSurface d) {
+        }
+
+        /**
+         * Counts the time.
+         *
+         * @param dt time passed since last invocation
+         */
+        @Override
+        public void timePassed(double dt) {
+            time += dt;
+        }
+
+        /**
+         * Not used.
+         *
+         * @param g game
+         */
+        @Override
+        public void addToGame(GameLevel g) {
+        }
+    }
+
+    /**
+     * Fills the collection.
+     */
+    @Setup
+    public void setUp() {
+        collection = new SpriteCollection();
+        for (int i = 0; i < sprites; i++) {
+            collection.addSprite(new Clock());
+        }
+    }
+
+    /**
+     * One notification of all the sprites.
+     *
+     * @return the collection
+     */
+    @Benchmark
+    public SpriteCollection notifyAllTimePassed() {
+        collection.notifyAllTimePassed(1.0 / 60);
+        return collection;
+    }
+}
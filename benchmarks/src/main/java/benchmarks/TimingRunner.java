@@ -0,0 +1,95 @@
+package benchmarks;
+
+import animation.Animation;
+import animation.SteppedAnimation;
+import biuoop.DrawSurface;
+import headless.HeadlessAnimationRunner;
+import headless.ScriptedDialogManager;
+import headless.ScriptedKeyboardSensor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * A headless runner that times the drawing and the update of every frame of
+ * the stepped animations it runs, and logs them with the bytes allocated.
+ * Other animations (count down, end screens) run as usual, untimed.
+ */
+final class TimingRunner extends HeadlessAnimationRunner {
+    private double frameTime;
+    private FrameLog log = null;
+    private com.sun.management.ThreadMXBean allocations = null;
+
+    /**
+     * Creates the runner.
+     *
+     * @param framesPerSecond num of frames to simulate per one second
+     * @param surface         the surface to draw the frames on
+     * @param keyboard        the keyboard script, moved on every frame
+     */
+    TimingRunner(int framesPerSecond, DrawSurface surface,
+                 ScriptedKeyboardSensor keyboard) {
+        super(framesPerSecond, surface, keyboard,
+                new ScriptedDialogManager("bench", true));
+        frameTime = 1.0 / framesPerSecond;
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            allocations = (com.sun.management.ThreadMXBean) threads;
+        }
+    }
+
+    /**
+     * Sets the log the next frames are recorded to.
+     *
+     * @param frameLog the log, or null not to record
+     */
+    void setLog(FrameLog frameLog) {
+        log = frameLog;
+    }
+
+    /**
+     * Runs the animation until it has to stop, timing every frame of a
+     * stepped animation.
+     *
+     * @param animation the animation object
+     */
+    @Override
+    public void run(Animation animation) {
+        if (!(animation instanceof SteppedAnimation)) {
+            super.run(animation);
+            return;
+        }
+        SteppedAnimation stepped = (SteppedAnimation) animation;
+        long thread = Thread.currentThread().getId();
+        while (!stepped.shouldStop()) {
+            DrawSurface d = getDrawSurface();
+            long bytesBefore = allocatedBytes(thread);
+            long start = System.nanoTime();
+            stepped.render(d);
+            long drawn = System.nanoTime();
+            latchInput();
+            stepped.step(frameTime);
+            long updated = System.nanoTime();
+            long bytesAfter = allocatedBytes(thread);
+            if (log != null) {
+                log.record(updated - drawn, drawn - start,
+                        bytesBefore < 0 ? -1 : bytesAfter - bytesBefore);
+            }
+            show(d);
+            frameDone(animation);
+        }
+    }
+
+    /**
+     * Gets the bytes the thread allocated so far.
+     *
+     * @param thread the thread id
+     * @return bytes, -1 if the JVM does not tell
+     */
+    private long allocatedBytes(long thread) {
+        if (allocations == null) {
+            return -1;
+        }
+        return allocations.getThreadAllocatedBytes(thread);
+    }
+}
@@ -1,8 +1,10 @@
 import animation.AnimationRunner;
+import animation.PacingProfile;
 import biuoop.KeyboardSensor;
 import run.SpaceInvaders;
 import utils.Consts;
 
+import java.io.File;
 import java.io.IOException;
 
 /**
@@ -13,16 +15,24 @@ public class Main {
     /**
      * Runs the game.
      *
-     * @param args level numbers in chosen order
+     * @param args optional directory to record the games' replays into
      */
     public static void main(String[] args) {
         AnimationRunner runner = new AnimationRunner(
                 Consts.getInstance().getFramesPerSec());
+        runner.setFixedStep(true);
+        boolean multicore = Runtime.getRuntime().availableProcessors() > 1;
+        runner.setPipelined(multicore);
+        runner.setPacing(multicore ? PacingProfile.LOW_LATENCY
+                : PacingProfile.POWER_SAVING);
         KeyboardSensor keyboardSensor
                 = runner.getGui().getKeyboardSensor();
 
         // Create the game
         SpaceInvaders game = new SpaceInvaders(runner, keyboardSensor);
+        if (args.length > 0) {
+            game.setReplayDir(new File(args[0]));
+        }
         try {
             game.runSpaceInvaders();
         } catch (IOException e) {
@@ -1,17 +1,32 @@
 package animation;
 
+import biuoop.DialogManager;
 import biuoop.DrawSurface;
 import biuoop.GUI;
 import biuoop.Sleeper;
+import diagnostics.FrameEvent;
+import diagnostics.FramePhase;
+import diagnostics.FrameStats;
+import diagnostics.HitchDetector;
 import utils.Consts;
 
 /**
  * An animation runner. Gets a specified animation and can run it.
  */
 public class AnimationRunner {
+    private static final int MAX_STEPS_PER_FRAME = 5;
+    private static final long NANOS_PER_MILLI = 1000000;
     private Sleeper sleeper = new Sleeper();
     private GUI gui;
     private double moveTimeSec;
+    private boolean fixedStep = false;
+    private boolean pipelined = false;
+    private RenderPipeline pipeline = null;
+    private FramePacer pacer = null;
+    private InputLatch input = null;
+    private long runs = 0; // animations run so far, nested ones too
+    private FrameStats stats = FrameStats.getInstance();
+    private HitchDetector hitches = HitchDetector.getInstance();
 
     /**
      * Creates an animation runner.
@@ -25,6 +40,18 @@ public class AnimationRunner {
         moveTimeSec = 1.0 / framesPerSecond;
     }
 
+    /**
+     * Creates an animation runner without a gui. The subclass provides the
+     * draw surfaces and the dialogs.
+     *
+     * @param framesPerSecond num of frames to be changed per one second.
+     * @param gui             the gui, or null
+     */
+    protected AnimationRunner(int framesPerSecond, GUI gui) {
+        this.gui = gui;
+        moveTimeSec = 1.0 / framesPerSecond;
+    }
+
     /**
      * Gets the gui instance.
      *
@@ -34,28 +61,311 @@ public class AnimationRunner {
         return gui;
     }
 
+    /**
+     * Gets the dialog manager to ask the user with.
+     *
+     * @return dialog manager
+     */
+    public DialogManager getDialogManager() {
+        return gui.getDialogManager();
+    }
+
+    /**
+     * Gets a surface to draw the next frame on.
+     *
+     * @return the draw surface
+     */
+    protected DrawSurface getDrawSurface() {
+        return gui.getDrawSurface();
+    }
+
+    /**
+     * Shows a drawn frame.
+     *
+     * @param d the surface the frame was drawn on
+     */
+    protected void show(DrawSurface d) {
+        gui.show(d);
+    }
+
+    /**
+     * Waits until the next frame is due.
+     *
+     * @param milliseconds time to wait
+     */
+    protected void sleepFor(long milliseconds) {
+        sleeper.sleepFor(milliseconds);
+    }
+
+    /**
+     * Called after every frame of a running animation, once it is simulated
+     * and drawn.
+     *
+     * @param animation the running animation
+     */
+    protected void frameDone(Animation animation) {
+    }
+
+    /**
+     * Sets whether stepped animations are run with a fixed simulation step.
+     * In this mode the simulation keeps up with the real time - a slow frame
+     * is caught up by running more steps before the next drawing.
+     *
+     * @param isFixedStep true to run with a fixed step
+     */
+    public void setFixedStep(boolean isFixedStep) {
+        fixedStep = isFixedStep;
+    }
+
+    /**
+     * Sets whether the fixed step runs draw on a render thread of their own,
+     * while the next step is simulated. Has effect only with a fixed step.
+     *
+     * @param isPipelined true to draw on a render thread
+     */
+    public void setPipelined(boolean isPipelined) {
+        pipelined = isPipelined;
+    }
+
+    /**
+     * Sets how the runner waits for the next frame. A paced runner schedules
+     * the frames against absolute nanosecond deadlines and ends every wait
+     * by spinning, instead of sleeping whole milliseconds.
+     *
+     * @param profile the pacing profile, or null to sleep whole milliseconds
+     */
+    public void setPacing(PacingProfile profile) {
+        if (profile == null) {
+            pacer = null;
+        } else {
+            pacer = new FramePacer(profile);
+        }
+    }
+
+    /**
+     * Sets the input latched before every simulation tick.
+     *
+     * @param latch the input, or null for none
+     */
+    public void setInputLatch(InputLatch latch) {
+        input = latch;
+    }
+
     /**
      * Runs the animation until it has to stop.
      *
      * @param animation the animation object
      */
     public void run(Animation animation) {
+        runs++;
+
+        // An animation run from inside a pipelined one draws by itself
+        if (pipeline != null) {
+            pipeline.drain();
+        }
+
+        if (fixedStep && animation instanceof SteppedAnimation) {
+            runFixedStep((SteppedAnimation) animation);
+            return;
+        }
+
         // Run the animation until it decides to stop
+        long stepNanos = (long) (moveTimeSec * 1000000000L);
+        long deadline = System.nanoTime() + stepNanos;
+        FrameEvent event = new FrameEvent();
         while (!animation.shouldStop()) {
             long startTime = System.currentTimeMillis(); // timing
+            event.begin();
+            hitches.beginFrame();
 
             // Show one frame
-            DrawSurface d = gui.getDrawSurface();
+            DrawSurface d = getDrawSurface();
+            latchInput();
             animation.doOneFrame(d, moveTimeSec);
-            gui.show(d);
+            showTimed(d);
+            finishFrame(event, animation, 1);
+            frameDone(animation);
 
             // Wait needed time
-            long usedTime = System.currentTimeMillis() - startTime;
-            long milliSecondLeftToSleep
-                    = (long) (moveTimeSec * 1000) - usedTime;
-            if (milliSecondLeftToSleep > 0) {
-                sleeper.sleepFor(milliSecondLeftToSleep);
+            if (pacer != null) {
+                deadline = waitForDeadline(deadline, stepNanos);
+            } else {
+                long usedTime = System.currentTimeMillis() - startTime;
+                long milliSecondLeftToSleep
+                        = (long) (moveTimeSec * 1000) - usedTime;
+                if (milliSecondLeftToSleep > 0) {
+                    sleepTimed(milliSecondLeftToSleep);
+                }
             }
+            hitches.endFrame(stepNanos);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Runs the animation with a fixed simulation step until it has to stop.
+     * The real time passed is accumulated and spent in whole steps, then the
+     * animation is drawn once. The steps run per frame are bounded, so after
+     * a long stall the simulation drops the lost time instead of racing to
+     * catch it up. A step that runs another animation, like the pause
+     * screen, starts the time anew when it returns - the time spent in the
+     * other animation is not caught up at all.
+     *
+     * @param animation the animation object
+     */
+    private void runFixedStep(SteppedAnimation animation) {
+        boolean ownsPipeline = pipelined && pipeline == null;
+        if (ownsPipeline) {
+            pipeline = new RenderPipeline(this);
+        }
+        try {
+            stepLoop(animation);
+        } finally {
+            if (ownsPipeline) {
+                pipeline.stop();
+                pipeline = null;
+            }
+        }
+    }
+
+    /**
+     * Runs the fixed step loop of the animation until it has to stop.
+     *
+     * @param animation the animation object
+     */
+    private void stepLoop(SteppedAnimation animation) {
+        long stepNanos = (long) (moveTimeSec * 1000000000L);
+        long maxFrameNanos = stepNanos * MAX_STEPS_PER_FRAME;
+        long accumulator = stepNanos; // the first frame starts with a step
+        long previous = System.nanoTime();
+        FrameEvent event = new FrameEvent();
+        while (!animation.shouldStop()) {
+            long now = System.nanoTime();
+            accumulator += Math.min(now - previous, maxFrameNanos);
+            previous = now;
+            event.begin();
+            hitches.beginFrame();
+
+            // Spend the accumulated time in whole simulation steps
+            int steps = 0;
+            while (accumulator >= stepNanos && !animation.shouldStop()) {
+                long runsBefore = runs;
+                latchInput();
+                animation.step(moveTimeSec);
+                accumulator -= stepNanos;
+                steps++;
+                if (runs != runsBefore) {
+                    // The step ran another animation, drop the time it took
+                    accumulator = 0;
+                    previous = System.nanoTime();
+                }
+            }
+            if (animation.shouldStop()) {
+                break;
+            }
+
+            // Show one frame
+            if (pipeline != null) {
+                pipeline.present(animation);
+            } else {
+                DrawSurface d = getDrawSurface();
+                animation.render(d);
+                showTimed(d);
+            }
+            finishFrame(event, animation, steps);
+            frameDone(animation);
+
+            // Wait until the next step is due
+            long nanosLeft = stepNanos - accumulator
+                    - (System.nanoTime() - previous);
+            if (pacer != null) {
+                pacedWaitTimed(System.nanoTime() + nanosLeft);
+            } else if (nanosLeft >= NANOS_PER_MILLI) {
+                sleepTimed(nanosLeft / NANOS_PER_MILLI);
+            }
+            hitches.endFrame(stepNanos);
+        }
+    }
+
+    /**
+     * Latches the input of the next simulation tick, if there is any.
+     */
+    protected void latchInput() {
+        if (input != null) {
+            input.latch();
+        }
+    }
+
+    /**
+     * Ends the flight recorder event of a frame. Only game frames are
+     * recorded - the screens between them are not interesting.
+     *
+     * @param event     the frame's event
+     * @param animation the running animation
+     * @param steps     simulation steps run in the frame
+     */
+    private void finishFrame(FrameEvent event, Animation animation,
+                             int steps) {
+        if (animation instanceof SteppedAnimation && event.isEnabled()) {
+            event.finish(moveTimeSec, steps, stats.getSprites(),
+                    stats.getBullets());
+        }
+    }
+
+    /**
+     * Waits for the deadline of a frame and returns the deadline of the
+     * next one. A frame that ended more than a step after its deadline
+     * starts the schedule anew, instead of rushing the next frames to catch
+     * up.
+     *
+     * @param deadline  the frame's deadline
+     * @param stepNanos time of one frame
+     * @return the next frame's deadline
+     */
+    private long waitForDeadline(long deadline, long stepNanos) {
+        long now = System.nanoTime();
+        if (now - deadline > stepNanos) {
+            return now + stepNanos;
+        }
+        pacedWaitTimed(deadline);
+        return deadline + stepNanos;
+    }
+
+    /**
+     * Waits for a deadline with the pacer and records how long it took,
+     * and how late it woke up.
+     *
+     * @param deadline the System.nanoTime time to wait for
+     */
+    private void pacedWaitTimed(long deadline) {
+        long start = System.nanoTime();
+        pacer.waitUntil(deadline);
+        long waited = System.nanoTime() - start;
+        stats.record(FramePhase.SLEEP, waited);
+        hitches.sleepDone(Math.max(0, deadline - start), waited);
+    }
+
+    /**
+     * Shows a drawn frame and records how long it took.
+     *
+     * @param d the surface the frame was drawn on
+     */
+    void showTimed(DrawSurface d) {
+        long start = System.nanoTime();
+        show(d);
+        stats.record(FramePhase.SHOW, System.nanoTime() - start);
+    }
+
+    /**
+     * Waits until the next frame is due and records how long it took, and
+     * how late it woke up.
+     *
+     * @param milliseconds time to wait
+     */
+    private void sleepTimed(long milliseconds) {
+        long start = System.nanoTime();
+        sleepFor(milliseconds);
+        long slept = System.nanoTime() - start;
+        stats.record(FramePhase.SLEEP, slept);
+        hitches.sleepDone(milliseconds * NANOS_PER_MILLI, slept);
+    }
+}
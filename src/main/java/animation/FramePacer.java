@@ -0,0 +1,47 @@
+package animation;
+
+import diagnostics.FrameStats;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Waits for absolute System.nanoTime deadlines, so frames are scheduled
+ * against the clock and do not drift the way whole millisecond sleeps do.
+ * Sleeps until shortly before the deadline and spins the rest, and records
+ * how late every wait ended.
+ */
+class FramePacer {
+    private PacingProfile profile;
+    private FrameStats stats = FrameStats.getInstance();
+
+    /**
+     * Creates a pacer.
+     *
+     * @param profile how to wait
+     */
+    FramePacer(PacingProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Waits until the deadline.
+     *
+     * @param deadline the System.nanoTime time to wait for
+     */
+    void waitUntil(long deadline) {
+        // Sleep coarsely, waking up again if woken too early
+        long sleepUntil = deadline - profile.getSpinNanos();
+        long now = System.nanoTime();
+        while (now < sleepUntil) {
+            LockSupport.parkNanos(sleepUntil - now);
+            now = System.nanoTime();
+        }
+
+        // Spin the rest, letting other threads run
+        while (now < deadline) {
+            Thread.yield();
+            now = System.nanoTime();
+        }
+        stats.pacingJitter(now - deadline);
+    }
+}
@@ -2,6 +2,11 @@ package animation;
 
 import biuoop.DrawSurface;
 import biuoop.KeyboardSensor;
+import diagnostics.AllocationMeter;
+import diagnostics.FramePhase;
+import diagnostics.FrameStats;
+import diagnostics.LevelEndEvent;
+import diagnostics.LevelStartEvent;
 import gameplay.GameEnvironment;
 import gameplay.LevelInformation;
 import gameplay.SpriteCollection;
@@ -15,6 +20,8 @@ import sprites.collidables.Collidable;
 import sprites.collidables.Ship;
 import sprites.collidables.Alien;
 import sprites.bullet.Bullet;
+import sprites.bullet.BulletField;
+import sprites.bullet.BulletManager;
 import sprites.statusbar.Indicator;
 import sprites.statusbar.ScoreIndicator;
 import sprites.statusbar.LevelIndicator;
@@ -22,17 +29,19 @@ import sprites.statusbar.LivesIndicator;
 import sprites.statusbar.StatusBar;
 import utils.Consts;
 import utils.Counter;
+import utils.GameClock;
+import utils.GameRandom;
+import utils.StateBuffer;
+import utils.StateHash;
 
 import java.awt.Color;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
 
 /**
  * This class holds all the sprites and is in charge of animation.
  */
-public class GameLevel implements Animation {
+public class GameLevel implements SteppedAnimation {
     private AnimationRunner runner;
     private boolean running;
     private SpriteCollection sprites = new SpriteCollection();
@@ -43,10 +52,19 @@ public class GameLevel implements Animation {
     private Counter playerScore;
     private Counter livesLeft;
     private LevelInformation levelInfo;
+    private GameClock clock = new GameClock();
+    private GameRandom random = new GameRandom(0);
+    private StateHash stateHash = new StateHash();
     private long lastShootTime = -1;
     private Enemy enemy = null;
     private Killer killer;
-    private List<Bullet> bulletsOnScreen = new LinkedList<Bullet>();
+    private BulletManager bullets = new BulletManager();
+    private BulletField bulletField = null;
+    private Barricade[] barricades = new Barricade[0];
+    private SavePointListener savePoints = null;
+    private FrameStats stats = FrameStats.getInstance();
+    private AllocationMeter allocations = new AllocationMeter();
+    private long frameBytes = 0;
 
     /**
      * Creates the game level.
@@ -100,6 +118,9 @@ public class GameLevel implements Animation {
      */
     public void initialize() throws IOException {
         levelInfo.getBackground().addToGame(this); // add the background
+        if (bulletField != null) {
+            bulletField.addToGame(this);
+        }
         createStatusBar();
         enemy = new Enemy(levelInfo.aliens(), levelInfo.aliensSpeed(), this);
         enemy.addToGame(this);
@@ -107,6 +128,92 @@ public class GameLevel implements Animation {
         createBarricades();
     }
 
+    /**
+     * Turns the level into a bullet hell: the bullets are kept in a bullet
+     * field and the aliens fire fans of bullets. Must be called before the
+     * level is initialized.
+     */
+    public void enableBulletHell() {
+        bulletField = new BulletField();
+    }
+
+    /**
+     * Sets the clock the level's timers read. The level advances the clock
+     * by the time of every step it runs, so a clock can be shared by the
+     * levels of a game.
+     *
+     * @param gameClock the clock
+     */
+    public void setClock(GameClock gameClock) {
+        clock = gameClock;
+    }
+
+    /**
+     * Returns the clock the level's timers read.
+     *
+     * @return the clock
+     */
+    public GameClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Sets the generator of the level's random numbers. All the randomness
+     * of the game play must come from it, so a level played with the same
+     * generator and the same input plays the same.
+     *
+     * @param generator the generator
+     */
+    public void setRandom(GameRandom generator) {
+        random = generator;
+    }
+
+    /**
+     * Returns the generator of the level's random numbers.
+     *
+     * @return the generator
+     */
+    public GameRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * Sets the hash the level adds its state to after every step, so a hash
+     * can be shared by the levels of a game.
+     *
+     * @param hash the state hash
+     */
+    public void setStateHash(StateHash hash) {
+        stateHash = hash;
+    }
+
+    /**
+     * Returns the hash of the level's states so far.
+     *
+     * @return the state hash
+     */
+    public StateHash getStateHash() {
+        return stateHash;
+    }
+
+    /**
+     * Sets the listener called at every save point of the level.
+     *
+     * @param listener the listener, or null for none
+     */
+    public void setSavePointListener(SavePointListener listener) {
+        savePoints = listener;
+    }
+
+    /**
+     * Returns whether the level is a bullet hell.
+     *
+     * @return true or false
+     */
+    public boolean isBulletHell() {
+        return bulletField != null;
+    }
+
     /**
      * Creates the barricades below the player.
      */
@@ -122,8 +229,10 @@ public class GameLevel implements Animation {
         colors.add(new Color(255, 197, 139));
 
         int barricadeStart = margin;
+        barricades = new Barricade[barrNum];
         for (int i = 0; i < barrNum; i++) {
-            new Barricade(barricadeStart, colors.get(i)).addToGame(this);
+            barricades[i] = new Barricade(barricadeStart, colors.get(i));
+            barricades[i].addToGame(this);
             barricadeStart += Barricade.WIDTH + margin;
         }
     }
@@ -181,8 +290,25 @@ public class GameLevel implements Animation {
         runner.run(new CountdownAnimation(2, 3, sprites));
 
         // Run the game
+        LevelStartEvent.emit(levelInfo.levelName(), true,
+                livesLeft.getValue(), playerScore.getValue());
         running = true;
         runner.run(this); // run the turn
+        LevelEndEvent.emit(levelInfo.levelName(), true, !areAliensLeft(),
+                livesLeft.getValue(), playerScore.getValue());
+    }
+
+    /**
+     * Goes on with a turn restored from a snapshot, from the step after the
+     * save point the snapshot was taken at.
+     */
+    public void resumeTurn() {
+        LevelStartEvent.emit(levelInfo.levelName(), true,
+                livesLeft.getValue(), playerScore.getValue());
+        running = true;
+        runner.run(this);
+        LevelEndEvent.emit(levelInfo.levelName(), true, !areAliensLeft(),
+                livesLeft.getValue(), playerScore.getValue());
     }
 
     /**
@@ -196,15 +322,79 @@ public class GameLevel implements Animation {
     }
 
     /**
-     * Plays one game frame.
+     * Plays one game frame, and records the bytes it allocated.
      *
      * @param d  the game surface
      * @param dt seconds passed since last move
      */
     @Override
     public void doOneFrame(DrawSurface d, double dt) {
+        allocations.begin();
+        drawAll(d);
+        updateAll(dt);
+        frameBytes += allocations.end();
+        frameAllocated();
+    }
+
+    /**
+     * Draws the game. Ends a frame of the fixed step runs, so the bytes
+     * allocated by the steps before and by the drawing are recorded.
+     *
+     * @param d the game surface
+     */
+    @Override
+    public void render(DrawSurface d) {
+        allocations.begin();
+        drawAll(d);
+        frameBytes += allocations.end();
+        frameAllocated();
+    }
+
+    /**
+     * Draws the sprites.
+     *
+     * @param d the game surface
+     */
+    private void drawAll(DrawSurface d) {
+        long start = System.nanoTime();
         sprites.drawAllOn(d);
+        stats.record(FramePhase.DRAW, System.nanoTime() - start);
+    }
+
+    /**
+     * Records the bytes the frame allocated, and starts counting the next.
+     */
+    private void frameAllocated() {
+        stats.frameAllocated(frameBytes);
+        frameBytes = 0;
+    }
+
+    /**
+     * Advances the game one step.
+     *
+     * @param dt seconds of the step
+     */
+    @Override
+    public void step(double dt) {
+        allocations.begin();
+        updateAll(dt);
+        frameBytes += allocations.end();
+    }
+
+    /**
+     * Updates the sprites, then checks whether the turn is over and reads
+     * the keys.
+     *
+     * @param dt seconds of the step
+     */
+    private void updateAll(double dt) {
+        clock.advance(dt);
+        long start = System.nanoTime();
         sprites.notifyAllTimePassed(dt);
+        bullets.removeOffScreen(this);
+        stats.record(FramePhase.UPDATE, System.nanoTime() - start);
+        stats.endUpdate(sprites.size(), playerEnvironment.size(),
+                enemyEnvironment.size(), getBulletCount());
 
         // Check if we need to stop the game
         if (!areAliensLeft()) {
@@ -214,16 +404,88 @@ public class GameLevel implements Animation {
             running = false;
         }
 
+        // Read the pause and shoot keys
+        long inputStart = System.nanoTime();
+        boolean pause = keyboard.isPressed("p");
+        boolean shoot = !pause && canShoot() && keyboard.isPressed("space");
+        stats.record(FramePhase.INPUT, System.nanoTime() - inputStart);
+
         // Run pause screen animation if needed
-        if (keyboard.isPressed("p")) {
+        if (pause) {
             String stopKey = Consts.getInstance().getStopAnimationKey();
             runner.run(new KeyPressStoppableAnimation(keyboard,
                     new PauseScreen(), stopKey));
 
             // Check if the user shot
-        } else if (canShoot() && keyboard.isPressed("space")) {
+        } else if (shoot) {
             Ship.getInstance().shoot(this);
-            lastShootTime = System.currentTimeMillis();
+            lastShootTime = clock.getMillis();
+        }
+        hashState();
+        if (running && savePoints != null) {
+            savePoints.savePoint();
+        }
+    }
+
+    /**
+     * Adds the state the step ended with to the state hash.
+     */
+    private void hashState() {
+        clock.hashState(stateHash);
+        random.hashState(stateHash);
+        stateHash.add(playerScore.getValue());
+        stateHash.add(livesLeft.getValue());
+        stateHash.add(aliensToRemove.getValue());
+        Ship.getInstance().hashState(stateHash);
+        enemy.hashState(stateHash);
+        for (Barricade barricade : barricades) {
+            barricade.hashState(stateHash);
+        }
+        bullets.hashState(stateHash);
+        if (bulletField != null) {
+            bulletField.hashState(stateHash);
+        }
+    }
+
+    /**
+     * Saves the level's state into a snapshot. The clock, the score and the
+     * lives are shared by the levels and are not saved with it.
+     *
+     * @param state the snapshot
+     */
+    public void saveState(StateBuffer state) {
+        state.putLong(lastShootTime);
+        aliensToRemove.saveState(state);
+        random.saveState(state);
+        Ship.getInstance().saveState(state);
+        enemy.saveState(state);
+        for (Barricade barricade : barricades) {
+            barricade.saveState(state);
+        }
+        bullets.saveState(state);
+        if (bulletField != null) {
+            bulletField.saveState(state);
+        }
+    }
+
+    /**
+     * Restores the level's state from a snapshot. The level must be freshly
+     * initialized, the same way as the level the snapshot was saved from.
+     *
+     * @param state the snapshot
+     */
+    public void restoreState(StateBuffer state) {
+        lastShootTime = state.getLong();
+        aliensToRemove.restoreState(state);
+        random.restoreState(state);
+        Ship.getInstance().restoreState(state);
+        enemy.restoreState(state);
+        for (Barricade barricade : barricades) {
+            barricade.restoreState(state);
+        }
+        bullets.restoreState(state, this);
+        if (bulletField != null) {
+            bulletField.restoreState(state);
         }
     }
 
@@ -234,7 +496,7 @@ public class GameLevel implements Animation {
      */
     private boolean canShoot() {
         return (lastShootTime == -1)
-                || (System.currentTimeMillis() >= lastShootTime + 350);
+                || (clock.getMillis() >= lastShootTime + 350);
     }
 
     /**
@@ -265,6 +527,24 @@ public class GameLevel implements Animation {
         enemyEnvironment.removeCollidable(c);
     }
 
+    /**
+     * Updates the position of a moved collidable in the player's collection.
+     *
+     * @param c the moved collidable
+     */
+    public void updatePlayerCollidable(Collidable c) {
+        playerEnvironment.updateCollidable(c);
+    }
+
+    /**
+     * Updates the position of a moved collidable in the enemy's collection.
+     *
+     * @param c the moved collidable
+     */
+    public void updateEnemyCollidable(Collidable c) {
+        enemyEnvironment.updateCollidable(c);
+    }
+
     /**
      * Removes the sprite from the sprites collection.
      *
@@ -316,15 +596,67 @@ public class GameLevel implements Animation {
      * @param newBullet new created bullet
      */
     public void addBullet(Bullet newBullet) {
-        bulletsOnScreen.add(newBullet);
+        bullets.add(newBullet);
+    }
+
+    /**
+     * Removes a bullet from the collection.
+     *
+     * @param bullet the bullet to remove
+     */
+    public void removeBullet(Bullet bullet) {
+        bullets.remove(bullet);
+    }
+
+    /**
+     * Shoots a player's bullet.
+     *
+     * @param x x coord
+     * @param y y coord
+     */
+    public void shootPlayerBullet(double x, double y) {
+        if (bulletField == null) {
+            bullets.obtainPlayerBullet(x, y).addToGame(this);
+        } else {
+            bulletField.addFan(BulletField.PLAYER, x, y, 1, 0);
+        }
+    }
+
+    /**
+     * Shoots an alien's bullet. In a bullet hell a fan of bullets is shot.
+     *
+     * @param x x coord
+     * @param y y coord
+     */
+    public void shootAlienBullet(double x, double y) {
+        if (bulletField == null) {
+            bullets.obtainAlienBullet(x, y).addToGame(this);
+        } else {
+            Consts consts = Consts.getInstance();
+            bulletField.addFan(BulletField.ALIEN, x, y,
+                    consts.getBulletHellFan(), consts.getBulletHellSpread());
+        }
+    }
+
+    /**
+     * Returns the number of bullets in the game.
+     *
+     * @return live bullets count
+     */
+    public int getBulletCount() {
+        if (bulletField != null) {
+            return bullets.size() + bulletField.size();
+        }
+        return bullets.size();
     }
 
     /**
      * Clears all the bullets from the screen.
      */
     private void clearBulletsFromScreen() {
-        for (Bullet bullet : bulletsOnScreen) {
-            bullet.removeFromGame(this);
+        bullets.clear(this);
+        if (bulletField != null) {
+            bulletField.clear();
         }
     }
 }
@@ -0,0 +1,14 @@
+package animation;
+
+/**
+ * Input that is read once per simulation tick. The runner latches it right
+ * before every tick - a frame of an animation, or a step of a stepped one -
+ * so everything the tick reads comes from the same moment, and a tick can
+ * be recorded and played again with exactly the input it saw.
+ */
+public interface InputLatch {
+    /**
+     * Reads the input of the next tick.
+     */
+    void latch();
+}
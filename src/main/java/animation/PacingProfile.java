@@ -0,0 +1,39 @@
+package animation;
+
+/**
+ * How a paced runner waits for the next frame. The wait sleeps most of the
+ * time and spins, yielding the processor, for the last part of it - sleeping
+ * wakes up late by a varying amount, spinning wakes up right on time but
+ * keeps a processor busy.
+ */
+public enum PacingProfile {
+    /**
+     * Spins only the last fifth of a millisecond, to save power.
+     */
+    POWER_SAVING(200000),
+    /**
+     * Spins the last millisecond and a half, for steady frame times.
+     */
+    LOW_LATENCY(1500000);
+
+    private final long spinNanos;
+
+    /**
+     * Creates a profile.
+     *
+     * @param spinNanos how long before the deadline to stop sleeping
+     */
+    PacingProfile(long spinNanos) {
+        this.spinNanos = spinNanos;
+    }
+
+    /**
+     * Returns how long before the deadline the wait stops sleeping and
+     * starts spinning.
+     *
+     * @return the spin time in nanoseconds
+     */
+    public long getSpinNanos() {
+        return spinNanos;
+    }
+}
@@ -0,0 +1,109 @@
+package animation;
+
+import biuoop.DrawSurface;
+import graphics.DisplayList;
+import utils.Consts;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Draws the frames of a stepped animation on a thread of its own. The
+ * simulation records every frame into a display list and hands it over, then
+ * goes on with the next step while the render thread draws the list. Two
+ * lists are passed back and forth through atomic references, so neither side
+ * ever takes a lock.
+ */
+class RenderPipeline implements Runnable {
+    private static final long IDLE_NANOS = 200000;
+    private AnimationRunner runner;
+    private DisplayList recording;
+    private AtomicReference<DisplayList> filled
+            = new AtomicReference<DisplayList>();
+    private AtomicReference<DisplayList> empty
+            = new AtomicReference<DisplayList>();
+    private volatile boolean running = true;
+
+    /**
+     * Creates the pipeline and starts its render thread.
+     *
+     * @param runner the runner whose surfaces to draw on
+     */
+    RenderPipeline(AnimationRunner runner) {
+        this.runner = runner;
+        Consts consts = Consts.getInstance();
+        int width = consts.getGameWidth();
+        int height = consts.getGameHeight();
+        recording = new DisplayList(width, height);
+        empty.set(new DisplayList(width, height));
+        Thread thread = new Thread(this, "render");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Records the current frame of the animation and hands it to the render
+     * thread. Waits only if the render thread is still drawing the frame
+     * before.
+     *
+     * @param animation the animation to record
+     */
+    void present(SteppedAnimation animation) {
+        recording.reset();
+        animation.render(recording);
+        while (!filled.compareAndSet(null, recording)) {
+            Thread.yield(); // the render thread did not take the last frame
+        }
+        recording = takeEmpty();
+    }
+
+    /**
+     * Waits until all the handed frames are drawn, so the gui can be drawn on
+     * directly.
+     */
+    void drain() {
+        while (filled.get() != null || empty.get() == null) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Draws the handed frames and stops the render thread.
+     */
+    void stop() {
+        drain();
+        running = false;
+    }
+
+    /**
+     * Draws every handed frame until the pipeline stops.
+     */
+    @Override
+    public void run() {
+        while (running) {
+            DisplayList frame = filled.getAndSet(null);
+            if (frame == null) {
+                LockSupport.parkNanos(IDLE_NANOS);
+                continue;
+            }
+            DrawSurface d = runner.getDrawSurface();
+            frame.replay(d);
+            runner.showTimed(d);
+            empty.set(frame);
+        }
+    }
+
+    /**
+     * Takes the list the render thread gave back, waiting for it if needed.
+     *
+     * @return a list to record into
+     */
+    private DisplayList takeEmpty() {
+        DisplayList list = empty.getAndSet(null);
+        while (list == null) {
+            Thread.yield(); // the render thread is drawing the frame before
+            list = empty.getAndSet(null);
+        }
+        return list;
+    }
+}
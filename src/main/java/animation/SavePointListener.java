@@ -0,0 +1,13 @@
+package animation;
+
+/**
+ * Listens to the points of a game level where its whole state can be saved
+ * and restored later: right after a step, when the next tick is a step of
+ * the same turn.
+ */
+public interface SavePointListener {
+    /**
+     * Called at every save point of the level.
+     */
+    void savePoint();
+}
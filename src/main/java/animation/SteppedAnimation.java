@@ -0,0 +1,23 @@
+package animation;
+
+import biuoop.DrawSurface;
+
+/**
+ * An animation whose simulation can be advanced apart from drawing it, so a
+ * runner can run several simulation steps per drawn frame, or none.
+ */
+public interface SteppedAnimation extends Animation {
+    /**
+     * Advances the simulation one step.
+     *
+     * @param dt the time of the step in seconds
+     */
+    void step(double dt);
+
+    /**
+     * Draws the current state of the animation.
+     *
+     * @param d is the surface
+     */
+    void render(DrawSurface d);
+}
@@ -0,0 +1,65 @@
+package diagnostics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the bytes the current thread allocates, through the thread
+ * allocation counters of the virtual machine. Where the counters are not
+ * available, or are turned off, the meter reads nothing.
+ */
+public final class AllocationMeter {
+    private com.sun.management.ThreadMXBean threads = null;
+    private long start = 0;
+
+    /**
+     * Creates a meter.
+     */
+    public AllocationMeter() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            threads = (com.sun.management.ThreadMXBean) bean;
+            if (!threads.isThreadAllocatedMemoryEnabled()) {
+                threads = null;
+            }
+        }
+    }
+
+    /**
+     * Returns whether the meter reads the allocations.
+     *
+     * @return true if it does
+     */
+    public boolean isSupported() {
+        return threads != null;
+    }
+
+    /**
+     * Starts measuring.
+     */
+    public void begin() {
+        start = allocatedBytes();
+    }
+
+    /**
+     * Returns the bytes allocated since the measuring started.
+     *
+     * @return bytes, 0 if the meter does not read the allocations
+     */
+    public long end() {
+        return allocatedBytes() - start;
+    }
+
+    /**
+     * Gets the bytes the current thread allocated so far.
+     *
+     * @return bytes, 0 if the meter does not read the allocations
+     */
+    private long allocatedBytes() {
+        if (threads == null) {
+            return 0;
+        }
+        return threads.getThreadAllocatedBytes(
+                Thread.currentThread().getId());
+    }
+}
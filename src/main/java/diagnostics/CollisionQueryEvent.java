@@ -0,0 +1,48 @@
+package diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a collision query. Only a sample of the queries
+ * is recorded.
+ */
+@Name("spaceinvaders.CollisionQuery")
+@Label("Collision Query")
+@Category("Space Invaders")
+@Description("A sampled closest collision query of a bullet trajectory")
+@StackTrace(false)
+public class CollisionQueryEvent extends Event {
+    @Label("Length")
+    @Description("Length of the trajectory in pixels")
+    private double length;
+
+    @Label("Collidables")
+    @Description("Collidables in the queried environment")
+    private int collidables;
+
+    @Label("Hit")
+    private boolean hit;
+
+    /**
+     * Ends the query and commits the event if it is recorded.
+     *
+     * @param trajectoryLength length of the trajectory in pixels
+     * @param collidableCount  collidables in the queried environment
+     * @param isHit            whether the trajectory hit something
+     */
+    public void finish(double trajectoryLength, int collidableCount,
+                       boolean isHit) {
+        end();
+        if (shouldCommit()) {
+            length = trajectoryLength;
+            collidables = collidableCount;
+            hit = isHit;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of one game frame, from its start until it is shown.
+ */
+@Name("spaceinvaders.Frame")
+@Label("Frame")
+@Category("Space Invaders")
+@Description("One game frame, from its start until it is shown")
+@StackTrace(false)
+public class FrameEvent extends Event {
+    @Label("Frame Time")
+    @Description("Simulated seconds per step")
+    private double dt;
+
+    @Label("Steps")
+    @Description("Simulation steps run in the frame")
+    private int steps;
+
+    @Label("Sprites")
+    private int sprites;
+
+    @Label("Bullets")
+    private int bullets;
+
+    /**
+     * Ends the frame and commits the event if it is recorded.
+     *
+     * @param frameTime   simulated seconds per step
+     * @param frameSteps  simulation steps run in the frame
+     * @param spriteCount sprites in the game
+     * @param bulletCount live bullets
+     */
+    public void finish(double frameTime, int frameSteps, int spriteCount,
+                       int bulletCount) {
+        end();
+        if (shouldCommit()) {
+            dt = frameTime;
+            steps = frameSteps;
+            sprites = spriteCount;
+            bullets = bulletCount;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package diagnostics;
+
+/**
+ * The phases a frame's time is spent in.
+ */
+public enum FramePhase {
+    /**
+     * Reading the keyboard for the pause and shoot keys.
+     */
+    INPUT,
+    /**
+     * Updating the sprites, collision queries included.
+     */
+    UPDATE,
+    /**
+     * Collision queries, summed over the frame.
+     */
+    COLLISION,
+    /**
+     * Drawing the sprites on the surface.
+     */
+    DRAW,
+    /**
+     * Showing the drawn surface.
+     */
+    SHOW,
+    /**
+     * Waiting for the next frame.
+     */
+    SLEEP
+}
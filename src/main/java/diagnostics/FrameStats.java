@@ -0,0 +1,335 @@
+package diagnostics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Where the frames' time goes - a histogram per frame phase, how late the
+ * paced frames start, the bytes the frames allocate, and the entity counts
+ * of the last frame. Published as an MBean named
+ * "SpaceInvaders:type=FrameStats". Recording allocates nothing.
+ */
+public final class FrameStats implements FrameStatsMBean {
+    private static final long NANOS_PER_MICRO = 1000;
+    private static FrameStats instance;
+    private Histogram[] phases = new Histogram[FramePhase.values().length];
+    private Histogram jitter = new Histogram();
+    private long collisionQueries = 0;
+    private long frameCollisionNanos = 0;
+    private volatile long frameBytes = 0;
+    private long allocatingFrames = 0;
+    private long totalBytes = 0;
+    private long maxFrameBytes = 0;
+    private volatile int sprites;
+    private volatile int playerCollidables;
+    private volatile int enemyCollidables;
+    private volatile int bullets;
+
+    /**
+     * Creates the statistics.
+     */
+    private FrameStats() {
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new Histogram();
+        }
+    }
+
+    /**
+     * Returns the statistics instance, registering it as an MBean the first
+     * time.
+     *
+     * @return the frame statistics
+     */
+    public static synchronized FrameStats getInstance() {
+        if (instance == null) {
+            instance = new FrameStats();
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(
+                        instance,
+                        new ObjectName("SpaceInvaders:type=FrameStats"));
+            } catch (JMException e) {
+                e.printStackTrace(); // statistics still work, unpublished
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Records the duration of a phase.
+     *
+     * @param phase the phase
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(FramePhase phase, long nanos) {
+        phases[phase.ordinal()].record(nanos);
+    }
+
+    /**
+     * Counts one collision query and its duration. The durations are summed
+     * until the frame ends.
+     *
+     * @param nanos the query duration in nanoseconds
+     */
+    public void collisionQuery(long nanos) {
+        collisionQueries++;
+        frameCollisionNanos += nanos;
+    }
+
+    /**
+     * Ends a frame's update - records the collision time of the frame and
+     * the entity counts.
+     *
+     * @param spriteCount           sprites in the game
+     * @param playerCollidableCount collidables for the player's bullets
+     * @param enemyCollidableCount  collidables for the aliens' bullets
+     * @param bulletCount           live bullets
+     */
+    public void endUpdate(int spriteCount, int playerCollidableCount,
+                          int enemyCollidableCount, int bulletCount) {
+        record(FramePhase.COLLISION, frameCollisionNanos);
+        frameCollisionNanos = 0;
+        sprites = spriteCount;
+        playerCollidables = playerCollidableCount;
+        enemyCollidables = enemyCollidableCount;
+        bullets = bulletCount;
+    }
+
+    /**
+     * Records how late a paced wait for a frame ended.
+     *
+     * @param nanos the lateness in nanoseconds
+     */
+    public void pacingJitter(long nanos) {
+        jitter.record(nanos);
+    }
+
+    /**
+     * Records the bytes a frame allocated.
+     *
+     * @param bytes the allocated bytes
+     */
+    public void frameAllocated(long bytes) {
+        frameBytes = bytes;
+        allocatingFrames++;
+        totalBytes += bytes;
+        if (bytes > maxFrameBytes) {
+            maxFrameBytes = bytes;
+        }
+    }
+
+    /**
+     * Returns the names of the frame phases.
+     *
+     * @return phase names
+     */
+    @Override
+    public String[] getPhases() {
+        FramePhase[] values = FramePhase.values();
+        String[] names = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = values[i].name();
+        }
+        return names;
+    }
+
+    /**
+     * Returns the upper bounds of the histogram buckets.
+     *
+     * @return bounds in microseconds
+     */
+    @Override
+    public long[] getBucketBoundsMicros() {
+        long[] bounds = new long[Histogram.BUCKETS];
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = Histogram.upperBoundMicros(i);
+        }
+        return bounds;
+    }
+
+    /**
+     * Returns the bucket counts of a phase's histogram.
+     *
+     * @param phase the phase name
+     * @return counts of all the buckets
+     */
+    @Override
+    public long[] histogram(String phase) {
+        return histogramOf(phase).getCounts();
+    }
+
+    /**
+     * Estimates a percentile of a phase's durations.
+     *
+     * @param phase the phase name
+     * @param p     percentile, between 0 and 100
+     * @return the duration in microseconds
+     */
+    @Override
+    public long percentileMicros(String phase, double p) {
+        return histogramOf(phase).percentileMicros(p);
+    }
+
+    /**
+     * Returns the average duration of a phase.
+     *
+     * @param phase the phase name
+     * @return the duration in microseconds
+     */
+    @Override
+    public long meanMicros(String phase) {
+        return histogramOf(phase).getMeanNanos() / NANOS_PER_MICRO;
+    }
+
+    /**
+     * Returns the longest duration of a phase.
+     *
+     * @param phase the phase name
+     * @return the duration in microseconds
+     */
+    @Override
+    public long maxMicros(String phase) {
+        return histogramOf(phase).getMaxNanos() / NANOS_PER_MICRO;
+    }
+
+    /**
+     * Returns the bucket counts of the pacing lateness histogram.
+     *
+     * @return counts of all the buckets
+     */
+    @Override
+    public long[] jitterHistogram() {
+        return jitter.getCounts();
+    }
+
+    /**
+     * Estimates a percentile of the pacing lateness.
+     *
+     * @param p percentile, between 0 and 100
+     * @return the lateness in microseconds
+     */
+    @Override
+    public long jitterPercentileMicros(double p) {
+        return jitter.percentileMicros(p);
+    }
+
+    /**
+     * Returns the most a paced wait ended late.
+     *
+     * @return the lateness in microseconds
+     */
+    @Override
+    public long getMaxJitterMicros() {
+        return jitter.getMaxNanos() / NANOS_PER_MICRO;
+    }
+
+    /**
+     * Returns the number of collision queries so far.
+     *
+     * @return queries count
+     */
+    @Override
+    public long getCollisionQueries() {
+        return collisionQueries;
+    }
+
+    /**
+     * Returns the bytes the last frame allocated.
+     *
+     * @return allocated bytes
+     */
+    @Override
+    public long getFrameBytes() {
+        return frameBytes;
+    }
+
+    /**
+     * Returns the average bytes a frame allocated.
+     *
+     * @return allocated bytes, 0 if no frame was recorded
+     */
+    @Override
+    public long getMeanFrameBytes() {
+        if (allocatingFrames == 0) {
+            return 0;
+        }
+        return totalBytes / allocatingFrames;
+    }
+
+    /**
+     * Returns the most bytes a frame allocated.
+     *
+     * @return allocated bytes
+     */
+    @Override
+    public long getMaxFrameBytes() {
+        return maxFrameBytes;
+    }
+
+    /**
+     * Returns the number of sprites at the last frame.
+     *
+     * @return sprites count
+     */
+    @Override
+    public int getSprites() {
+        return sprites;
+    }
+
+    /**
+     * Returns the number of collidables the player's bullets can hit, at
+     * the last frame.
+     *
+     * @return collidables count
+     */
+    @Override
+    public int getPlayerCollidables() {
+        return playerCollidables;
+    }
+
+    /**
+     * Returns the number of collidables the aliens' bullets can hit, at the
+     * last frame.
+     *
+     * @return collidables count
+     */
+    @Override
+    public int getEnemyCollidables() {
+        return enemyCollidables;
+    }
+
+    /**
+     * Returns the number of live bullets at the last frame.
+     *
+     * @return bullets count
+     */
+    @Override
+    public int getBullets() {
+        return bullets;
+    }
+
+    /**
+     * Clears all the statistics.
+     */
+    @Override
+    public void reset() {
+        for (Histogram histogram : phases) {
+            histogram.reset();
+        }
+        jitter.reset();
+        collisionQueries = 0;
+        allocatingFrames = 0;
+        totalBytes = 0;
+        maxFrameBytes = 0;
+    }
+
+    /**
+     * Finds a phase's histogram by the phase name.
+     *
+     * @param phase the phase name
+     * @return the histogram
+     */
+    private Histogram histogramOf(String phase) {
+        return phases[FramePhase.valueOf(phase).ordinal()];
+    }
+}
@@ -0,0 +1,138 @@
+package diagnostics;
+
+/**
+ * The management interface of the frame statistics.
+ */
+public interface FrameStatsMBean {
+    /**
+     * Returns the names of the frame phases.
+     *
+     * @return phase names
+     */
+    String[] getPhases();
+
+    /**
+     * Returns the upper bounds of the histogram buckets.
+     *
+     * @return bounds in microseconds
+     */
+    long[] getBucketBoundsMicros();
+
+    /**
+     * Returns the bucket counts of a phase's histogram.
+     *
+     * @param phase the phase name
+     * @return counts of all the buckets
+     */
+    long[] histogram(String phase);
+
+    /**
+     * Estimates a percentile of a phase's durations.
+     *
+     * @param phase the phase name
+     * @param p     percentile, between 0 and 100
+     * @return the duration in microseconds
+     */
+    long percentileMicros(String phase, double p);
+
+    /**
+     * Returns the average duration of a phase.
+     *
+     * @param phase the phase name
+     * @return the duration in microseconds
+     */
+    long meanMicros(String phase);
+
+    /**
+     * Returns the longest duration of a phase.
+     *
+     * @param phase the phase name
+     * @return the duration in microseconds
+     */
+    long maxMicros(String phase);
+
+    /**
+     * Returns the bucket counts of the pacing lateness histogram.
+     *
+     * @return counts of all the buckets
+     */
+    long[] jitterHistogram();
+
+    /**
+     * Estimates a percentile of the pacing lateness.
+     *
+     * @param p percentile, between 0 and 100
+     * @return the lateness in microseconds
+     */
+    long jitterPercentileMicros(double p);
+
+    /**
+     * Returns the most a paced wait ended late.
+     *
+     * @return the lateness in microseconds
+     */
+    long getMaxJitterMicros();
+
+    /**
+     * Returns the number of collision queries so far.
+     *
+     * @return queries count
+     */
+    long getCollisionQueries();
+
+    /**
+     * Returns the bytes the last frame allocated.
+     *
+     * @return allocated bytes
+     */
+    long getFrameBytes();
+
+    /**
+     * Returns the average bytes a frame allocated.
+     *
+     * @return allocated bytes, 0 if no frame was recorded
+     */
+    long getMeanFrameBytes();
+
+    /**
+     * Returns the most bytes a frame allocated.
+     *
+     * @return allocated bytes
+     */
+    long getMaxFrameBytes();
+
+    /**
+     * Returns the number of sprites at the last frame.
+     *
+     * @return sprites count
+     */
+    int getSprites();
+
+    /**
+     * Returns the number of collidables the player's bullets can hit, at
+     * the last frame.
+     *
+     * @return collidables count
+     */
+    int getPlayerCollidables();
+
+    /**
+     * Returns the number of collidables the aliens' bullets can hit, at the
+     * last frame.
+     *
+     * @return collidables count
+     */
+    int getEnemyCollidables();
+
+    /**
+     * Returns the number of live bullets at the last frame.
+     *
+     * @return bullets count
+     */
+    int getBullets();
+
+    /**
+     * Clears all the statistics.
+     */
+    void reset();
+}
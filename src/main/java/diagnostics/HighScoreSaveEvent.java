@@ -0,0 +1,37 @@
+package diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of saving the high scores table to its file.
+ */
+@Name("spaceinvaders.HighScoreSave")
+@Label("High Score Save")
+@Category("Space Invaders")
+@Description("Saving the high scores table to its file")
+public class HighScoreSaveEvent extends Event {
+    @Label("File")
+    private String file;
+
+    @Label("Scores")
+    private int scores;
+
+    /**
+     * Ends the save and commits the event if it is recorded.
+     *
+     * @param path       path of the file
+     * @param scoreCount scores in the table
+     */
+    public void finish(String path, int scoreCount) {
+        end();
+        if (shouldCommit()) {
+            file = path;
+            scores = scoreCount;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package diagnostics;
+
+/**
+ * A histogram of durations with fixed buckets. Bucket 0 counts durations
+ * under a microsecond, and bucket i counts durations from 2^(i-1) up to 2^i
+ * microseconds; the last bucket also counts everything longer. Recording
+ * only updates a few counters, so it allocates nothing.
+ */
+public class Histogram {
+    public static final int BUCKETS = 32;
+    private static final long NANOS_PER_MICRO = 1000;
+    private long[] counts = new long[BUCKETS];
+    private long count = 0;
+    private long totalNanos = 0;
+    private long maxNanos = 0;
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        counts[bucketOf(nanos)]++;
+        count++;
+        totalNanos += nanos;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+    }
+
+    /**
+     * Finds the bucket of a duration.
+     *
+     * @param nanos the duration in nanoseconds
+     * @return the bucket index
+     */
+    public static int bucketOf(long nanos) {
+        long micros = Math.max(0, nanos / NANOS_PER_MICRO);
+        int bucket = 64 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    /**
+     * Returns the upper bound of a bucket.
+     *
+     * @param bucket the bucket index
+     * @return the bound in microseconds
+     */
+    public static long upperBoundMicros(int bucket) {
+        return 1L << bucket;
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     *
+     * @return durations count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the longest recorded duration.
+     *
+     * @return the duration in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Returns the average recorded duration.
+     *
+     * @return the duration in nanoseconds, 0 if none was recorded
+     */
+    public long getMeanNanos() {
+        if (count == 0) {
+            return 0;
+        }
+        return totalNanos / count;
+    }
+
+    /**
+     * Estimates a percentile as the upper bound of the bucket it falls in.
+     *
+     * @param p percentile, between 0 and 100
+     * @return the duration in microseconds, 0 if none was recorded
+     */
+    public long percentileMicros(double p) {
+        long rank = (long) Math.ceil(p / 100 * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+                return upperBoundMicros(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns a copy of the bucket counts.
+     *
+     * @return counts of all the buckets
+     */
+    public long[] getCounts() {
+        long[] copy = new long[BUCKETS];
+        System.arraycopy(counts, 0, copy, 0, BUCKETS);
+        return copy;
+    }
+
+    /**
+     * Clears the histogram.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = 0;
+        }
+        count = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+}
@@ -0,0 +1,96 @@
+package diagnostics;
+
+/**
+ * One frame that ran over its budget, and how much of it each suspect
+ * explains. Instances are kept in a ring and reused.
+ */
+class Hitch {
+    private long frame;
+    private long frameNanos;
+    private long budgetNanos;
+    private long gcNanos;
+    private long jitNanos;
+    private long sleepOvershootNanos;
+    private long logicNanos;
+    private HitchCause cause;
+
+    /**
+     * Sets the hitch's details and picks the cause that explains the most
+     * of it.
+     *
+     * @param frameNumber    number of the frame
+     * @param frameTime      duration of the frame
+     * @param budget         the frame's budget
+     * @param gc             collection pauses during the frame
+     * @param jit            compilation time during the frame
+     * @param sleepOvershoot how much later than requested the sleep ended
+     * @param logic          work time of the frame over its budget
+     */
+    void set(long frameNumber, long frameTime, long budget, long gc,
+             long jit, long sleepOvershoot, long logic) {
+        frame = frameNumber;
+        frameNanos = frameTime;
+        budgetNanos = budget;
+        gcNanos = gc;
+        jitNanos = jit;
+        sleepOvershootNanos = sleepOvershoot;
+        logicNanos = logic;
+
+        // Pauses stop the game outright, so they win ties
+        cause = HitchCause.GC;
+        long most = gc;
+        if (jit > most) {
+            cause = HitchCause.JIT;
+            most = jit;
+        }
+        if (sleepOvershoot > most) {
+            cause = HitchCause.SLEEP_OVERSHOOT;
+            most = sleepOvershoot;
+        }
+        if (logic > most || most <= 0) {
+            cause = HitchCause.GAME_LOGIC;
+        }
+    }
+
+    /**
+     * Returns the likely cause of the hitch.
+     *
+     * @return the cause
+     */
+    HitchCause getCause() {
+        return cause;
+    }
+
+    /**
+     * Returns how long the frame was over its budget.
+     *
+     * @return the overrun in nanoseconds
+     */
+    long getOverrunNanos() {
+        return frameNanos - budgetNanos;
+    }
+
+    /**
+     * Describes the hitch in one line.
+     *
+     * @return the description
+     */
+    @Override
+    public String toString() {
+        return "frame " + frame + ": " + micros(frameNanos) + "us of "
+                + micros(budgetNanos) + "us, " + cause + " (gc "
+                + micros(gcNanos) + "us, jit " + micros(jitNanos)
+                + "us, sleep +" + micros(sleepOvershootNanos)
+                + "us, logic +" + micros(logicNanos) + "us)";
+    }
+
+    /**
+     * Converts nanoseconds to whole microseconds.
+     *
+     * @param nanos the nanoseconds
+     * @return the microseconds
+     */
+    private static long micros(long nanos) {
+        return nanos / 1000;
+    }
+}
@@ -0,0 +1,23 @@
+package diagnostics;
+
+/**
+ * The likely causes of a frame running over its budget.
+ */
+public enum HitchCause {
+    /**
+     * A garbage collection paused the game.
+     */
+    GC,
+    /**
+     * The just in time compiler was busy.
+     */
+    JIT,
+    /**
+     * Waiting for the frame woke up late.
+     */
+    SLEEP_OVERSHOOT,
+    /**
+     * The game itself took too long to update and draw.
+     */
+    GAME_LOGIC
+}
@@ -0,0 +1,320 @@
+package diagnostics;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+
+import javax.management.JMException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Finds the frames that run over their budget and puts each one down to its
+ * likely cause: a collection pause, a compilation burst, a sleep that woke
+ * up late, or the game's own work. The totals and the latest hitches are
+ * published as an MBean named "SpaceInvaders:type=HitchDetector", whose
+ * dumpReport operation describes them on demand.
+ * <p>
+ * Collection pauses are reported by notifications on another thread, a
+ * little after they happen, so a hitch is only classified when the frame
+ * after it ends. Checking a frame that is not a hitch allocates nothing.
+ */
+public final class HitchDetector implements HitchDetectorMBean,
+        NotificationListener {
+    private static final int HISTORY = 32;
+    private static final int SLACK_DIVISOR = 4; // a quarter of the budget
+    private static final int PAUSES = 64;
+    private static final long NANOS_PER_MILLI = 1000000;
+    private static HitchDetector instance;
+    private CompilationMXBean compiler
+            = ManagementFactory.getCompilationMXBean();
+    private long baseNanos = System.nanoTime();
+    private long baseUptimeMillis
+            = ManagementFactory.getRuntimeMXBean().getUptime();
+
+    // Recent collection pauses, written by the notification thread
+    private long[] pauseStartMillis = new long[PAUSES];
+    private long[] pauseMillis = new long[PAUSES];
+    private int pausesCount = 0;
+
+    // The current frame
+    private long frameStart;
+    private long frameCompileMillis;
+    private long frameSleepNanos;
+    private long frameOvershootNanos;
+
+    // A hitch waiting for its pauses to be reported
+    private boolean pending = false;
+    private long pendingStart;
+    private long pendingEnd;
+    private long pendingBudget;
+    private long pendingJitNanos;
+    private long pendingOvershootNanos;
+    private long pendingLogicNanos;
+
+    private volatile long frames = 0;
+    private long[] counts = new long[HitchCause.values().length];
+    private long[] overrunNanos = new long[HitchCause.values().length];
+    private Hitch[] history = new Hitch[HISTORY];
+    private long hitches = 0;
+
+    /**
+     * Creates the detector and listens to the collectors.
+     */
+    private HitchDetector() {
+        for (int i = 0; i < HISTORY; i++) {
+            history[i] = new Hitch();
+        }
+        for (GarbageCollectorMXBean gc
+                : ManagementFactory.getGarbageCollectorMXBeans()) {
+            // Concurrent cycles run beside the game and pause nothing
+            String name = gc.getName();
+            if (name.contains("Concurrent") || name.contains("Cycles")) {
+                continue;
+            }
+            if (gc instanceof NotificationEmitter) {
+                ((NotificationEmitter) gc).addNotificationListener(this,
+                        null, null);
+            }
+        }
+    }
+
+    /**
+     * Returns the detector instance, registering it as an MBean the first
+     * time.
+     *
+     * @return the hitch detector
+     */
+    public static synchronized HitchDetector getInstance() {
+        if (instance == null) {
+            instance = new HitchDetector();
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(
+                        instance,
+                        new ObjectName("SpaceInvaders:type=HitchDetector"));
+            } catch (JMException e) {
+                e.printStackTrace(); // hitches still found, unpublished
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Starts checking a frame.
+     */
+    public void beginFrame() {
+        frameStart = System.nanoTime();
+        frameCompileMillis = compileMillis();
+        frameSleepNanos = 0;
+        frameOvershootNanos = 0;
+    }
+
+    /**
+     * Records a wait of the current frame.
+     *
+     * @param requestedNanos how long the wait was asked to be
+     * @param actualNanos    how long it really was
+     */
+    public void sleepDone(long requestedNanos, long actualNanos) {
+        frameSleepNanos += actualNanos;
+        long overshoot = actualNanos - requestedNanos;
+        if (overshoot > 0) {
+            frameOvershootNanos += overshoot;
+        }
+    }
+
+    /**
+     * Ends checking a frame. A frame over its budget by more than a quarter
+     * is kept as a hitch, and the hitch of the frame before is classified.
+     *
+     * @param budgetNanos how long the frame should have taken
+     */
+    public void endFrame(long budgetNanos) {
+        long end = System.nanoTime();
+        frames++;
+        if (pending) {
+            classifyPending();
+        }
+        if (end - frameStart <= budgetNanos + budgetNanos / SLACK_DIVISOR) {
+            return;
+        }
+
+        pending = true;
+        pendingStart = frameStart;
+        pendingEnd = end;
+        pendingBudget = budgetNanos;
+        pendingJitNanos = (compileMillis() - frameCompileMillis)
+                * NANOS_PER_MILLI;
+        pendingOvershootNanos = frameOvershootNanos;
+        pendingLogicNanos = Math.max(0,
+                end - frameStart - frameSleepNanos - budgetNanos);
+    }
+
+    /**
+     * Counts a collection pause.
+     *
+     * @param notification the collector's notification
+     * @param handback     not used
+     */
+    @Override
+    public void handleNotification(Notification notification,
+                                   Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION
+                .equals(notification.getType())) {
+            return;
+        }
+        GcInfo gc = GarbageCollectionNotificationInfo.from(
+                (CompositeData) notification.getUserData()).getGcInfo();
+        synchronized (pauseMillis) {
+            int i = pausesCount % PAUSES;
+            pauseStartMillis[i] = gc.getStartTime();
+            pauseMillis[i] = gc.getDuration();
+            pausesCount++;
+        }
+    }
+
+    /**
+     * Returns the number of frames checked so far.
+     *
+     * @return frames count
+     */
+    @Override
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Returns the names of the hitch causes.
+     *
+     * @return cause names
+     */
+    @Override
+    public String[] getCauses() {
+        HitchCause[] values = HitchCause.values();
+        String[] names = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = values[i].name();
+        }
+        return names;
+    }
+
+    /**
+     * Returns the number of hitches put down to every cause, in the order
+     * of the cause names.
+     *
+     * @return hitch counts
+     */
+    @Override
+    public synchronized long[] getHitchCounts() {
+        return counts.clone();
+    }
+
+    /**
+     * Describes the hitches so far - the totals per cause and the latest
+     * hitches one by one.
+     *
+     * @return the report
+     */
+    @Override
+    public synchronized String dumpReport() {
+        StringBuilder report = new StringBuilder();
+        report.append(hitches).append(" hitches in ").append(frames)
+                .append(" frames\n");
+        HitchCause[] causes = HitchCause.values();
+        for (int i = 0; i < causes.length; i++) {
+            report.append(causes[i]).append(": ").append(counts[i])
+                    .append(" hitches, ")
+                    .append(overrunNanos[i] / NANOS_PER_MILLI)
+                    .append("ms over budget\n");
+        }
+        long first = Math.max(0, hitches - HISTORY);
+        for (long i = first; i < hitches; i++) {
+            report.append(history[(int) (i % HISTORY)]).append('\n');
+        }
+        return report.toString();
+    }
+
+    /**
+     * Clears all the hitches.
+     */
+    @Override
+    public synchronized void reset() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+            overrunNanos[i] = 0;
+        }
+        hitches = 0;
+        frames = 0;
+    }
+
+    /**
+     * Classifies the kept hitch, now that the pauses during it were
+     * reported.
+     */
+    private synchronized void classifyPending() {
+        pending = false;
+        long gcNanos = pauseNanos(pendingStart, pendingEnd);
+
+        // The game stood still during the pauses, that is not its work
+        long logicNanos = Math.max(0, pendingLogicNanos - gcNanos);
+        Hitch hitch = history[(int) (hitches % HISTORY)];
+        hitch.set(frames - 1, pendingEnd - pendingStart, pendingBudget,
+                gcNanos, pendingJitNanos, pendingOvershootNanos, logicNanos);
+        hitches++;
+        int cause = hitch.getCause().ordinal();
+        counts[cause]++;
+        overrunNanos[cause] += hitch.getOverrunNanos();
+    }
+
+    /**
+     * Sums the collection pauses that started during a time span.
+     *
+     * @param start start of the span, in System.nanoTime terms
+     * @param end   end of the span, in System.nanoTime terms
+     * @return the pauses' duration in nanoseconds
+     */
+    private long pauseNanos(long start, long end) {
+        // The collectors tell the time in whole milliseconds of uptime
+        long from = uptimeMillis(start) - 1;
+        long to = uptimeMillis(end) + 1;
+        long total = 0;
+        synchronized (pauseMillis) {
+            int first = Math.max(0, pausesCount - PAUSES);
+            for (int i = first; i < pausesCount; i++) {
+                long pauseStart = pauseStartMillis[i % PAUSES];
+                if (pauseStart >= from && pauseStart <= to) {
+                    total += pauseMillis[i % PAUSES];
+                }
+            }
+        }
+        return total * NANOS_PER_MILLI;
+    }
+
+    /**
+     * Converts a System.nanoTime time to the uptime of the virtual machine.
+     *
+     * @param nanos the time
+     * @return the uptime in milliseconds
+     */
+    private long uptimeMillis(long nanos) {
+        return baseUptimeMillis + (nanos - baseNanos) / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the total time spent compiling so far.
+     *
+     * @return the time in milliseconds, 0 if it is not monitored
+     */
+    private long compileMillis() {
+        if (compiler == null
+                || !compiler.isCompilationTimeMonitoringSupported()) {
+            return 0;
+        }
+        return compiler.getTotalCompilationTime();
+    }
+}
@@ -0,0 +1,41 @@
+package diagnostics;
+
+/**
+ * The management interface of the hitch detector.
+ */
+public interface HitchDetectorMBean {
+    /**
+     * Returns the number of frames checked so far.
+     *
+     * @return frames count
+     */
+    long getFrames();
+
+    /**
+     * Returns the names of the hitch causes.
+     *
+     * @return cause names
+     */
+    String[] getCauses();
+
+    /**
+     * Returns the number of hitches put down to every cause, in the order
+     * of the cause names.
+     *
+     * @return hitch counts
+     */
+    long[] getHitchCounts();
+
+    /**
+     * Describes the hitches so far - the totals per cause and the latest
+     * hitches one by one.
+     *
+     * @return the report
+     */
+    String dumpReport();
+
+    /**
+     * Clears all the hitches.
+     */
+    void reset();
+}
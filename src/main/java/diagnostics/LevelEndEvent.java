@@ -0,0 +1,55 @@
+package diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of a level, or a turn of a level, ending.
+ */
+@Name("spaceinvaders.LevelEnd")
+@Label("Level End")
+@Category("Space Invaders")
+@Description("A level, or one turn of a level, ends")
+public class LevelEndEvent extends Event {
+    @Label("Level")
+    private String level;
+
+    @Label("Turn")
+    @Description("True for a turn inside the level, false for the level")
+    private boolean turn;
+
+    @Label("Cleared")
+    @Description("True if all the aliens were removed")
+    private boolean cleared;
+
+    @Label("Lives")
+    private int lives;
+
+    @Label("Score")
+    private int score;
+
+    /**
+     * Commits a level end event, if it is recorded.
+     *
+     * @param levelName the level's name
+     * @param isTurn    true for a turn inside the level
+     * @param isCleared true if all the aliens were removed
+     * @param livesLeft lives the player has
+     * @param points    the player's score
+     */
+    public static void emit(String levelName, boolean isTurn,
+                            boolean isCleared, int livesLeft, int points) {
+        LevelEndEvent event = new LevelEndEvent();
+        if (event.shouldCommit()) {
+            event.level = levelName;
+            event.turn = isTurn;
+            event.cleared = isCleared;
+            event.lives = livesLeft;
+            event.score = points;
+            event.commit();
+        }
+    }
+}
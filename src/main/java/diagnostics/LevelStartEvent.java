@@ -0,0 +1,49 @@
+package diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of a level, or a turn of a level, starting.
+ */
+@Name("spaceinvaders.LevelStart")
+@Label("Level Start")
+@Category("Space Invaders")
+@Description("A level, or one turn of a level, starts")
+public class LevelStartEvent extends Event {
+    @Label("Level")
+    private String level;
+
+    @Label("Turn")
+    @Description("True for a turn inside the level, false for the level")
+    private boolean turn;
+
+    @Label("Lives")
+    private int lives;
+
+    @Label("Score")
+    private int score;
+
+    /**
+     * Commits a level start event, if it is recorded.
+     *
+     * @param levelName the level's name
+     * @param isTurn    true for a turn inside the level
+     * @param livesLeft lives the player has
+     * @param points    the player's score
+     */
+    public static void emit(String levelName, boolean isTurn, int livesLeft,
+                            int points) {
+        LevelStartEvent event = new LevelStartEvent();
+        if (event.shouldCommit()) {
+            event.level = levelName;
+            event.turn = isTurn;
+            event.lives = livesLeft;
+            event.score = points;
+            event.commit();
+        }
+    }
+}
@@ -16,7 +16,11 @@ import java.util.List;
  * One level of the game.
  */
 public class Battle implements LevelInformation {
+    public static final int DEFAULT_COLS = 10;
+    public static final int DEFAULT_ROWS = 5;
     private int levelNum;
+    private int cols;
+    private int rows;
 
     /**
      * Creates new battle level.
@@ -24,7 +28,20 @@ public class Battle implements LevelInformation {
      * @param levelNum number of level
      */
     public Battle(int levelNum) {
+        this(levelNum, DEFAULT_COLS, DEFAULT_ROWS);
+    }
+
+    /**
+     * Creates new battle level with a formation of a given size.
+     *
+     * @param levelNum number of level
+     * @param cols     columns of aliens in the formation
+     * @param rows     rows of aliens in the formation
+     */
+    public Battle(int levelNum, int cols, int rows) {
         this.levelNum = levelNum;
+        this.cols = cols;
+        this.rows = rows;
     }
 
     /**
@@ -104,8 +121,6 @@ public class Battle implements LevelInformation {
     @Override
     public List<Alien> aliens() throws IOException {
         List<Alien> aliens = new LinkedList<Alien>();
-        int rows = 5;
-        int cols = 10;
         int alienHeight = 30;
         int alienWidth = Consts.getInstance().getAliensWidth();
 
@@ -0,0 +1,231 @@
+package gameplay;
+
+import graphics.Rectangle;
+import sprites.collidables.Collidable;
+import utils.Consts;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A uniform grid over the playfield. Every collidable is registered in all
+ * the cells its collision rectangle covers, so a collision query only has to
+ * look at the cells the trajectory passes through.
+ */
+class CollisionGrid {
+    private static final int CELL_SIZE = 50;
+    private int cols;
+    private int rows;
+    private List<List<Entry>> cells;
+    private Map<Collidable, Entry> entries
+            = new IdentityHashMap<Collidable, Entry>();
+    private int queryStamp = 0;
+
+    /**
+     * One collidable registered in the grid together with the cells range it
+     * currently occupies.
+     */
+    static final class Entry {
+        private Collidable collidable;
+        private int minCol;
+        private int minRow;
+        private int maxCol;
+        private int maxRow;
+        private int stamp = 0;
+
+        /**
+         * Creates an entry for the collidable.
+         *
+         * @param collidable the registered collidable
+         */
+        private Entry(Collidable collidable) {
+            this.collidable = collidable;
+        }
+
+        /**
+         * Returns the registered collidable.
+         *
+         * @return the collidable
+         */
+        Collidable getCollidable() {
+            return collidable;
+        }
+    }
+
+    /**
+     * Creates an empty grid covering the game screen.
+     */
+    CollisionGrid() {
+        Consts consts = Consts.getInstance();
+        cols = (consts.getGameWidth() + CELL_SIZE - 1) / CELL_SIZE;
+        rows = (consts.getGameHeight() + CELL_SIZE - 1) / CELL_SIZE;
+        cells = new ArrayList<List<Entry>>(cols * rows);
+        for (int i = 0; i < cols * rows; i++) {
+            cells.add(new ArrayList<Entry>());
+        }
+    }
+
+    /**
+     * Gets the size of one cell in pixels.
+     *
+     * @return cell size
+     */
+    static int getCellSize() {
+        return CELL_SIZE;
+    }
+
+    /**
+     * Registers the collidable in the cells it covers.
+     *
+     * @param c collidable to add
+     */
+    void add(Collidable c) {
+        if (entries.containsKey(c)) {
+            return;
+        }
+        Entry entry = new Entry(c);
+        entries.put(c, entry);
+        bin(entry);
+    }
+
+    /**
+     * Removes the collidable from the grid.
+     *
+     * @param c collidable to remove
+     */
+    void remove(Collidable c) {
+        Entry entry = entries.remove(c);
+        if (entry != null) {
+            unbin(entry);
+        }
+    }
+
+    /**
+     * Moves the collidable to the cells matching its current rectangle. Does
+     * nothing if it still covers the same cells.
+     *
+     * @param c collidable that has moved
+     */
+    void update(Collidable c) {
+        Entry entry = entries.get(c);
+        if (entry == null) {
+            return;
+        }
+
+        // Re-bin only if the covered cells range changed
+        Rectangle rect = c.getCollisionRectangle();
+        if (clampCol(cellOf(rect.getLeft())) != entry.minCol
+                || clampCol(cellOf(rect.getRight())) != entry.maxCol
+                || clampRow(cellOf(rect.getTop())) != entry.minRow
+                || clampRow(cellOf(rect.getBottom())) != entry.maxRow) {
+            unbin(entry);
+            bin(entry);
+        }
+    }
+
+    /**
+     * Returns the number of registered collidables.
+     *
+     * @return collidables count
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Starts a new query. Entries visited during the query are reported only
+     * once even if they cover several cells.
+     */
+    void beginQuery() {
+        queryStamp++;
+    }
+
+    /**
+     * Marks the entry as visited by the current query.
+     *
+     * @param entry the entry to mark
+     * @return true if it was not visited by this query before
+     */
+    boolean visit(Entry entry) {
+        if (entry.stamp == queryStamp) {
+            return false;
+        }
+        entry.stamp = queryStamp;
+        return true;
+    }
+
+    /**
+     * Gets the entries of a cell. Cells outside the screen are mapped to the
+     * closest border cell.
+     *
+     * @param col column of the cell
+     * @param row row of the cell
+     * @return entries registered in the cell
+     */
+    List<Entry> cellAt(int col, int row) {
+        return cells.get(clampRow(row) * cols + clampCol(col));
+    }
+
+    /**
+     * Gets the grid coordinate of a screen coordinate.
+     *
+     * @param coord x or y coordinate
+     * @return the column or row containing it
+     */
+    static int cellOf(double coord) {
+        return (int) Math.floor(coord / CELL_SIZE);
+    }
+
+    /**
+     * Adds the entry to all the cells its rectangle covers.
+     *
+     * @param entry entry to add
+     */
+    private void bin(Entry entry) {
+        Rectangle rect = entry.collidable.getCollisionRectangle();
+        entry.minCol = clampCol(cellOf(rect.getLeft()));
+        entry.maxCol = clampCol(cellOf(rect.getRight()));
+        entry.minRow = clampRow(cellOf(rect.getTop()));
+        entry.maxRow = clampRow(cellOf(rect.getBottom()));
+        for (int row = entry.minRow; row <= entry.maxRow; row++) {
+            for (int col = entry.minCol; col <= entry.maxCol; col++) {
+                cells.get(row * cols + col).add(entry);
+            }
+        }
+    }
+
+    /**
+     * Removes the entry from all the cells it was added to.
+     *
+     * @param entry entry to remove
+     */
+    private void unbin(Entry entry) {
+        for (int row = entry.minRow; row <= entry.maxRow; row++) {
+            for (int col = entry.minCol; col <= entry.maxCol; col++) {
+                cells.get(row * cols + col).remove(entry);
+            }
+        }
+    }
+
+    /**
+     * Clamps a column into the grid.
+     *
+     * @param col column
+     * @return closest column inside the grid
+     */
+    private int clampCol(int col) {
+        return Math.max(0, Math.min(cols - 1, col));
+    }
+
+    /**
+     * Clamps a row into the grid.
+     *
+     * @param row row
+     * @return closest row inside the grid
+     */
+    private int clampRow(int row) {
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+}
@@ -1,25 +1,35 @@
 package gameplay;
 
+import diagnostics.CollisionQueryEvent;
+import diagnostics.FrameStats;
 import sprites.bullet.CollisionInfo;
+import graphics.GridTraversal;
 import graphics.Line;
-import graphics.Point;
 import graphics.Rectangle;
+import graphics.SegmentHit;
 import sprites.collidables.Collidable;
+import sprites.collidables.CompoundCollidable;
 
-import java.util.LinkedList;
 import java.util.List;
 
 /**
  * The game environment - contains all the objects on the game screen.
  */
 public class GameEnvironment {
-    private LinkedList<Collidable> collidables;
+    private static final int QUERY_SAMPLE = 64;
+    private CollisionGrid grid;
+    private SegmentHit hit = new SegmentHit();
+    private CollisionInfo result = new CollisionInfo();
+    private GridTraversal walk = new GridTraversal();
+    private FrameStats stats = FrameStats.getInstance();
+    private int untilSample = QUERY_SAMPLE;
+    private CollisionQueryEvent queryEvent = new CollisionQueryEvent();
 
     /**
      * Creates the game environment and adds aliens on screen sides.
      */
     public GameEnvironment() {
-        collidables = new LinkedList<Collidable>();
+        grid = new CollisionGrid();
     }
 
     /**
@@ -28,7 +38,7 @@ public class GameEnvironment {
      * @param c collidable object
      */
     public void addCollidable(Collidable c) {
-        collidables.add(c);
+        grid.add(c);
     }
 
     /**
@@ -37,7 +47,25 @@ public class GameEnvironment {
      * @param c collidable to remove
      */
     public void removeCollidable(Collidable c) {
-        collidables.remove(c);
+        grid.remove(c);
+    }
+
+    /**
+     * Updates the position of a collidable that has moved.
+     *
+     * @param c the moved collidable
+     */
+    public void updateCollidable(Collidable c) {
+        grid.update(c);
+    }
+
+    /**
+     * Returns the number of collidables in the environment.
+     *
+     * @return collidables count
+     */
+    public int size() {
+        return grid.size();
     }
 
     /**
@@ -47,45 +75,123 @@ public class GameEnvironment {
      * @return Gets collision with the closest object, null if no collision
      */
     public CollisionInfo getClosestCollision(Line trajectory) {
-        double minDistance = -1;
-        double currDistance;
-        Point currIntersection;
-        Point closestIntersection = null;
+        return getClosestCollision(trajectory.start().getX(),
+                trajectory.start().getY(), trajectory.end().getX(),
+                trajectory.end().getY());
+    }
+
+    /**
+     * Get the collision info by the track line coordinates. Allocates
+     * nothing - the returned info is reused by the next query, so it has to
+     * be handled before querying again.
+     *
+     * @param startX x coordinate of the trajectory start
+     * @param startY y coordinate of the trajectory start
+     * @param endX   x coordinate of the trajectory end
+     * @param endY   y coordinate of the trajectory end
+     * @return Gets collision with the closest object, null if no collision
+     */
+    public CollisionInfo getClosestCollision(double startX, double startY,
+                                             double endX, double endY) {
+        // Only every QUERY_SAMPLE-th query is offered to the flight recorder
+        boolean sampled = false;
+        if (--untilSample == 0) {
+            untilSample = QUERY_SAMPLE;
+            sampled = true;
+            queryEvent.begin();
+        }
+
+        long start = System.nanoTime();
+        CollisionInfo collision
+                = findClosestCollision(startX, startY, endX, endY);
+        stats.collisionQuery(System.nanoTime() - start);
+
+        if (sampled) {
+            double x = endX - startX;
+            double y = endY - startY;
+            queryEvent.finish(Math.sqrt(x * x + y * y), grid.size(),
+                    collision != null);
+        }
+        return collision;
+    }
+
+    /**
+     * Finds the collision with the closest object on the trajectory.
+     *
+     * @param startX x coordinate of the trajectory start
+     * @param startY y coordinate of the trajectory start
+     * @param endX   x coordinate of the trajectory end
+     * @param endY   y coordinate of the trajectory end
+     * @return Gets collision with the closest object, null if no collision
+     */
+    private CollisionInfo findClosestCollision(double startX, double startY,
+                                               double endX, double endY) {
+        double minT = -1;
+        int closestPart = -1;
         Collidable closestObject = null;
 
-        // Make a copy to prevent exceptions if the list changes
-        List<Collidable> collidablesCopy
-                = new LinkedList<Collidable>(collidables);
-
-        // Go over all the collidables
-        for (Collidable collidable : collidablesCopy) {
-            Rectangle rectangle = collidable.getCollisionRectangle();
-            // Get the intersection point with current rectangle
-            currIntersection = trajectory
-                    .closestIntersectionToStartOfLine(rectangle);
-            if (currIntersection == null) {
-                continue;
-            }
+        // Go over the grid cells in the order the trajectory crosses them
+        int cellSize = CollisionGrid.getCellSize();
+        walk.start(startX, startY, endX, endY, 0, 0, cellSize, cellSize);
+        grid.beginQuery();
+        do {
+            List<CollisionGrid.Entry> cell
+                    = grid.cellAt(walk.col(), walk.row());
+            for (int i = 0; i < cell.size(); i++) {
+                CollisionGrid.Entry entry = cell.get(i);
+                if (!grid.visit(entry)) {
+                    continue; // already checked in a previous cell
+                }
 
-            // If it's the closest point yet - save it
-            currDistance = trajectory.start().distance(currIntersection);
+                // Check the hit with current object
+                Collidable collidable = entry.getCollidable();
+                if (!isHit(collidable, startX, startY, endX, endY)) {
+                    continue;
+                }
 
-            if (currDistance == 0) { // if it's the same point - don't count it
-                continue;
+                // If it's the closest hit yet - save it
+                if ((minT == -1) || (hit.getT() < minT)) {
+                    minT = hit.getT();
+                    closestPart = hit.getPart();
+                    closestObject = collidable;
+                }
             }
-            if ((minDistance == -1) || (currDistance < minDistance)) {
-                minDistance = currDistance;
-                closestIntersection = currIntersection;
-                closestObject = collidable;
+
+            // Nothing in the next cells can be closer than this hit
+            if ((minT != -1) && (minT <= walk.exitT())) {
+                break;
             }
-        }
+        } while (walk.next());
 
-        if (closestIntersection != null) {
-            // Return coordinates
-            closestIntersection.setX(closestIntersection.getX());
-            closestIntersection.setY(closestIntersection.getY());
-            return new CollisionInfo(closestIntersection, closestObject);
+        if (closestObject != null) {
+            return result.set(startX + minT * (endX - startX),
+                    startY + minT * (endY - startY), closestObject,
+                    closestPart);
         }
         return null; // no collision
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks whether the trajectory hits the collidable, and saves the hit.
+     *
+     * @param collidable the collidable to check
+     * @param startX     x coordinate of the trajectory start
+     * @param startY     y coordinate of the trajectory start
+     * @param endX       x coordinate of the trajectory end
+     * @param endY       y coordinate of the trajectory end
+     * @return true if there is a hit
+     */
+    private boolean isHit(Collidable collidable, double startX, double startY,
+                          double endX, double endY) {
+        // Compound objects know which of their parts is hit
+        if (collidable instanceof CompoundCollidable) {
+            return ((CompoundCollidable) collidable)
+                    .resolveHit(startX, startY, endX, endY, hit);
+        }
+
+        Rectangle rect = collidable.getCollisionRectangle();
+        return Line.intersectRectangle(startX, startY, endX, endY,
+                rect.getLeft(), rect.getTop(), rect.getRight(),
+                rect.getBottom(), hit);
+    }
+}
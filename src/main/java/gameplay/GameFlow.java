@@ -6,12 +6,19 @@ import animation.Animation;
 import animation.GameOverScreen;
 import animation.HighScoresAnimation;
 import animation.KeyPressStoppableAnimation;
+import animation.SavePointListener;
 import biuoop.DialogManager;
 import biuoop.KeyboardSensor;
+import diagnostics.LevelEndEvent;
+import diagnostics.LevelStartEvent;
 import scores.HighScoresTable;
 import scores.ScoreInfo;
 import utils.Consts;
 import utils.Counter;
+import utils.GameClock;
+import utils.GameRandom;
+import utils.StateBuffer;
+import utils.StateHash;
 
 import java.io.File;
 import java.io.IOException;
@@ -24,8 +31,19 @@ public class GameFlow {
     private KeyboardSensor keyboardSensor;
     private AnimationRunner animationRunner;
     private HighScoresTable scoresTable;
+    private File scoresFile;
     private Counter playerScore = new Counter(0);
     private Counter livesLeft;
+    private GameClock clock = new GameClock();
+    private long seed = System.nanoTime();
+    private StateHash stateHash = new StateHash();
+    private GameRandom random = null;
+    private int levelNum = 1;
+    private GameLevel level = null;
+    private SavePointListener savePoints = null;
+    private boolean bulletHell = false;
+    private int formationCols = Battle.DEFAULT_COLS;
+    private int formationRows = Battle.DEFAULT_ROWS;
     private Consts consts = Consts.getInstance();
 
     /**
@@ -43,31 +61,176 @@ public class GameFlow {
         this.livesLeft = new Counter(lives);
 
         // Load the high scores table
-        File scoresFile = new File(consts.getScoresFileName());
+        scoresFile = new File(consts.getScoresFileName());
         scoresTable = HighScoresTable.loadFromFile(scoresFile);
     }
 
+    /**
+     * Sets the file the high scores are read from and saved to. Without a
+     * file a new high score is kept in memory only, so headless and replayed
+     * games leave the player's table alone.
+     *
+     * @param file the scores file, or null not to save the scores
+     * @throws IOException problem reading the file
+     */
+    public void setScoresFile(File file) throws IOException {
+        scoresFile = file;
+        if (file != null) {
+            scoresTable = HighScoresTable.loadFromFile(file);
+        }
+    }
+
+    /**
+     * Sets whether the levels are played as bullet hells.
+     *
+     * @param isBulletHell true for a bullet hell game
+     */
+    public void setBulletHell(boolean isBulletHell) {
+        bulletHell = isBulletHell;
+    }
+
+    /**
+     * Sets the size of the aliens formation in every level.
+     *
+     * @param cols columns of aliens
+     * @param rows rows of aliens
+     */
+    public void setFormation(int cols, int rows) {
+        formationCols = cols;
+        formationRows = rows;
+    }
+
+    /**
+     * Sets the seed of the game's random numbers. A game played with the
+     * same seed and the same input plays the same, frame by frame, and ends
+     * with the same state hash. Must be called before the game is run.
+     *
+     * @param sessionSeed the seed
+     */
+    public void setSeed(long sessionSeed) {
+        seed = sessionSeed;
+    }
+
+    /**
+     * Returns the seed of the game's random numbers, so a game can be
+     * played again.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the hash of all the game's states so far.
+     *
+     * @return the state hash
+     */
+    public StateHash getStateHash() {
+        return stateHash;
+    }
+
+    /**
+     * Sets the listener called at every save point of the levels, where the
+     * game's state can be saved.
+     *
+     * @param listener the listener, or null for none
+     */
+    public void setSavePointListener(SavePointListener listener) {
+        savePoints = listener;
+    }
+
     /**
      * Run the game.
      *
      * @throws IOException problem reading file
      */
     public void runLevels() throws IOException {
+        random = new GameRandom(seed);
+        levelNum = 1;
+        playLevels(null);
+    }
+
+    /**
+     * Runs the game from a snapshot saved at a save point, on to its end.
+     * The game must be set up the same way as the game that saved it.
+     *
+     * @param state the snapshot
+     * @throws IOException problem reading file
+     */
+    public void resumeLevels(StateBuffer state) throws IOException {
+        random = new GameRandom(seed);
+        levelNum = state.getInt();
+        playerScore.restoreState(state);
+        livesLeft.restoreState(state);
+        clock.restoreState(state);
+        random.restoreState(state);
+        stateHash.restoreState(state);
+        playLevels(state);
+    }
+
+    /**
+     * Saves the game's state into a snapshot. Can only be called at a save
+     * point.
+     *
+     * @param state the snapshot
+     */
+    public void saveState(StateBuffer state) {
+        state.putInt(levelNum);
+        playerScore.saveState(state);
+        livesLeft.saveState(state);
+        clock.saveState(state);
+        random.saveState(state);
+        stateHash.saveState(state);
+        level.saveState(state);
+    }
+
+    /**
+     * Runs the levels from the current one until the player has no more
+     * lives.
+     *
+     * @param resume snapshot of the current level to go on from, or null to
+     *               start the level anew
+     * @throws IOException problem reading file
+     */
+    private void playLevels(StateBuffer resume) throws IOException {
         boolean playerAlive = true;
-        int levelNum = 1;
+        StateBuffer saved = resume;
 
         // Run levels as they are in list
         while (playerAlive) {
             // Create the current level
-            GameLevel level =
-                    new GameLevel(new Battle(levelNum), keyboardSensor,
-                            animationRunner, playerScore, livesLeft);
+            Battle battle = new Battle(levelNum, formationCols,
+                    formationRows);
+            level = new GameLevel(battle, keyboardSensor,
+                    animationRunner, playerScore, livesLeft);
+            level.setClock(clock);
+            level.setStateHash(stateHash);
+            level.setSavePointListener(savePoints);
+            if (saved == null) {
+                level.setRandom(random.split());
+            }
+            if (bulletHell) {
+                level.enableBulletHell();
+            }
             level.initialize();
+            LevelStartEvent.emit(battle.levelName(), false,
+                    livesLeft.getValue(), playerScore.getValue());
+
+            // Go on with the saved turn
+            if (saved != null) {
+                level.restoreState(saved);
+                saved = null;
+                level.resumeTurn();
+            }
 
             // Play current level while there are more aliens and lives
             while (level.areAliensLeft() && areLivesLeft()) {
                 level.playOneTurn();
             }
+            LevelEndEvent.emit(battle.levelName(), false,
+                    !level.areAliensLeft(), livesLeft.getValue(),
+                    playerScore.getValue());
 
             // No more lives - stop the game
             if (livesLeft.getValue() == 0) {
@@ -83,10 +246,12 @@ public class GameFlow {
     }
 
     /**
-     * Save high scores to file.
+     * Save high scores to file, if there is one.
      */
     private void saveScores() {
-        File scoresFile = new File(consts.getScoresFileName());
+        if (scoresFile == null) {
+            return;
+        }
         try {
             scoresTable.save(scoresFile);
         } catch (IOException e) {
@@ -157,7 +322,7 @@ public class GameFlow {
      * @return player's name
      */
     private String getPlayerName() {
-        DialogManager dialog = animationRunner.getGui().getDialogManager();
+        DialogManager dialog = animationRunner.getDialogManager();
         return dialog.showQuestionDialog(
                 "New high score!", "What is your name?", "");
     }
@@ -4,20 +4,24 @@ import biuoop.DrawSurface;
 import sprites.Sprite;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
- * Collection of all the sprites on the game field.
+ * Collection of all the sprites on the game field. Sprites added or removed
+ * while the collection is being iterated are applied once the iteration is
+ * done, so iterating never needs a copy of the collection.
  */
 public class SpriteCollection {
-    private LinkedList<Sprite> sprites;
+    private List<Sprite> sprites;
+    private List<Sprite> pendingSprites = new ArrayList<Sprite>();
+    private List<Boolean> pendingAdds = new ArrayList<Boolean>();
+    private int iterations = 0;
 
     /**
      * Creates an empty sprite collection.
      */
     public SpriteCollection() {
-        sprites = new LinkedList<Sprite>();
+        sprites = new ArrayList<Sprite>();
     }
 
     /**
@@ -26,7 +30,12 @@ public class SpriteCollection {
      * @param s new sprite
      */
     public void addSprite(Sprite s) {
-        sprites.add(s);
+        if (iterations > 0) {
+            pendingSprites.add(s);
+            pendingAdds.add(Boolean.TRUE);
+        } else {
+            sprites.add(s);
+        }
     }
 
     /**
@@ -35,7 +44,21 @@ public class SpriteCollection {
      * @param s sprite to remove
      */
     public void removeSprite(Sprite s) {
-        sprites.remove(s);
+        if (iterations > 0) {
+            pendingSprites.add(s);
+            pendingAdds.add(Boolean.FALSE);
+        } else {
+            removeNow(s);
+        }
+    }
+
+    /**
+     * Returns the number of sprites in the collection.
+     *
+     * @return sprites count
+     */
+    public int size() {
+        return sprites.size();
     }
 
     /**
@@ -44,13 +67,14 @@ public class SpriteCollection {
      * @param dt time passed in seconds
      */
     public void notifyAllTimePassed(double dt) {
-        // Copy the sprites collection before iterating, to prevent exceptions
-        // in case the list changes while iterating
-        List<Sprite> spritesCopy = new ArrayList<Sprite>(sprites);
-
-        // Notify the sprites time passed
-        for (Sprite sprite : spritesCopy) {
-            sprite.timePassed(dt);
+        iterations++;
+        try {
+            // Notify the sprites time passed
+            for (int i = 0; i < sprites.size(); i++) {
+                sprites.get(i).timePassed(dt);
+            }
+        } finally {
+            endIteration();
         }
     }
 
@@ -60,13 +84,48 @@ public class SpriteCollection {
      * @param d draw surface
      */
     public void drawAllOn(DrawSurface d) {
-        // Copy the sprites collection before iterating, to prevent exceptions
-        // in case the list changes while iterating
-        List<Sprite> spritesCopy = new ArrayList<Sprite>(sprites);
+        iterations++;
+        try {
+            // Draw all the sprites
+            for (int i = 0; i < sprites.size(); i++) {
+                sprites.get(i).drawOn(d);
+            }
+        } finally {
+            endIteration();
+        }
+    }
 
-        // Draw all the sprites
-        for (Sprite sprite : spritesCopy) {
-            sprite.drawOn(d);
+    /**
+     * Ends an iteration. When no iteration is left, applies the changes that
+     * were made during it, in the order they were made.
+     */
+    private void endIteration() {
+        iterations--;
+        if (iterations > 0) {
+            return;
+        }
+        for (int i = 0; i < pendingSprites.size(); i++) {
+            if (pendingAdds.get(i)) {
+                sprites.add(pendingSprites.get(i));
+            } else {
+                removeNow(pendingSprites.get(i));
+            }
+        }
+        pendingSprites.clear();
+        pendingAdds.clear();
+    }
+
+    /**
+     * Removes the sprite from the collection right away.
+     *
+     * @param s sprite to remove
+     */
+    private void removeNow(Sprite s) {
+        for (int i = 0; i < sprites.size(); i++) {
+            if (sprites.get(i) == s) {
+                sprites.remove(i);
+                return;
+            }
         }
     }
-}
\ No newline at end of file
+}
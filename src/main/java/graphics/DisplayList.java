@@ -0,0 +1,332 @@
+package graphics;
+
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Polygon;
+
+/**
+ * A draw surface that records the drawing commands instead of drawing them.
+ * The recorded commands hold copies of everything they need, so the list is
+ * a snapshot of one frame that can be replayed on another surface later, on
+ * another thread. A list is reused frame after frame by resetting it.
+ */
+public class DisplayList implements DrawSurface {
+    private static final int INIT_CAPACITY = 512;
+    private static final int ARGS = 4;
+    private static final int COLOR = 0;
+    private static final int IMAGE = 1;
+    private static final int CIRCLE = 2;
+    private static final int FILL_CIRCLE = 3;
+    private static final int OVAL = 4;
+    private static final int FILL_OVAL = 5;
+    private static final int LINE = 6;
+    private static final int RECTANGLE = 7;
+    private static final int FILL_RECTANGLE = 8;
+    private static final int POLYGON = 9;
+    private static final int FILL_POLYGON = 10;
+    private static final int TEXT = 11;
+    private int width;
+    private int height;
+    private int size = 0;
+    private int[] ops = new int[INIT_CAPACITY];
+    private int[] args = new int[INIT_CAPACITY * ARGS];
+    private Object[] refs = new Object[INIT_CAPACITY];
+
+    /**
+     * Creates an empty display list.
+     *
+     * @param width  width of the recorded surface
+     * @param height height of the recorded surface
+     */
+    public DisplayList(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Removes all the recorded commands.
+     */
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * Returns the number of recorded commands.
+     *
+     * @return commands count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Draws all the recorded commands on a surface, in their order.
+     *
+     * @param d the surface to draw on
+     */
+    public void replay(DrawSurface d) {
+        for (int i = 0; i < size; i++) {
+            int a = i * ARGS;
+            int x = args[a];
+            int y = args[a + 1];
+            int w = args[a + 2];
+            int h = args[a + 3];
+            switch (ops[i]) {
+                case COLOR:
+                    d.setColor((Color) refs[i]);
+                    break;
+                case IMAGE:
+                    d.drawImage(x, y, (Image) refs[i]);
+                    break;
+                case CIRCLE:
+                    d.drawCircle(x, y, w);
+                    break;
+                case FILL_CIRCLE:
+                    d.fillCircle(x, y, w);
+                    break;
+                case OVAL:
+                    d.drawOval(x, y, w, h);
+                    break;
+                case FILL_OVAL:
+                    d.fillOval(x, y, w, h);
+                    break;
+                case LINE:
+                    d.drawLine(x, y, w, h);
+                    break;
+                case RECTANGLE:
+                    d.drawRectangle(x, y, w, h);
+                    break;
+                case FILL_RECTANGLE:
+                    d.fillRectangle(x, y, w, h);
+                    break;
+                case POLYGON:
+                    d.drawPolygon((Polygon) refs[i]);
+                    break;
+                case FILL_POLYGON:
+                    d.fillPolygon((Polygon) refs[i]);
+                    break;
+                case TEXT:
+                    d.drawText(x, y, (String) refs[i], w);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Records one command.
+     *
+     * @param op  the command
+     * @param x   first argument
+     * @param y   second argument
+     * @param w   third argument
+     * @param h   fourth argument
+     * @param ref object argument, or null
+     */
+    private void record(int op, int x, int y, int w, int h, Object ref) {
+        if (size == ops.length) {
+            grow();
+        }
+        int a = size * ARGS;
+        ops[size] = op;
+        args[a] = x;
+        args[a + 1] = y;
+        args[a + 2] = w;
+        args[a + 3] = h;
+        refs[size] = ref;
+        size++;
+    }
+
+    /**
+     * Doubles the capacity of the list.
+     */
+    private void grow() {
+        int capacity = ops.length * 2;
+        int[] newOps = new int[capacity];
+        System.arraycopy(ops, 0, newOps, 0, size);
+        ops = newOps;
+        int[] newArgs = new int[capacity * ARGS];
+        System.arraycopy(args, 0, newArgs, 0, size * ARGS);
+        args = newArgs;
+        Object[] newRefs = new Object[capacity];
+        System.arraycopy(refs, 0, newRefs, 0, size);
+        refs = newRefs;
+    }
+
+    /**
+     * Copies a polygon, so later changes to it do not change the snapshot.
+     *
+     * @param p the polygon
+     * @return a copy of the polygon
+     */
+    private static Polygon copy(Polygon p) {
+        return new Polygon(p.xpoints, p.ypoints, p.npoints);
+    }
+
+    /**
+     * Records drawing an image.
+     *
+     * @param x   x coord
+     * @param y   y coord
+     * @param img the image
+     */
+    @Override
+    public void drawImage(int x, int y, Image img) {
+        record(IMAGE, x, y, 0, 0, img);
+    }
+
+    /**
+     * Records drawing a circle.
+     *
+     * @param x x coord of the center
+     * @param y y coord of the center
+     * @param r radius
+     */
+    @Override
+    public void drawCircle(int x, int y, int r) {
+        record(CIRCLE, x, y, r, 0, null);
+    }
+
+    /**
+     * Records filling a circle.
+     *
+     * @param x x coord of the center
+     * @param y y coord of the center
+     * @param r radius
+     */
+    @Override
+    public void fillCircle(int x, int y, int r) {
+        record(FILL_CIRCLE, x, y, r, 0, null);
+    }
+
+    /**
+     * Records drawing an oval.
+     *
+     * @param x x coord
+     * @param y y coord
+     * @param w width
+     * @param h height
+     */
+    @Override
+    public void drawOval(int x, int y, int w, int h) {
+        record(OVAL, x, y, w, h, null);
+    }
+
+    /**
+     * Records filling an oval.
+     *
+     * @param x x coord
+     * @param y y coord
+     * @param w width
+     * @param h height
+     */
+    @Override
+    public void fillOval(int x, int y, int w, int h) {
+        record(FILL_OVAL, x, y, w, h, null);
+    }
+
+    /**
+     * Records drawing a line.
+     *
+     * @param x1 x coord of the start
+     * @param y1 y coord of the start
+     * @param x2 x coord of the end
+     * @param y2 y coord of the end
+     */
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        record(LINE, x1, y1, x2, y2, null);
+    }
+
+    /**
+     * Records drawing a rectangle.
+     *
+     * @param x x coord
+     * @param y y coord
+     * @param w width
+     * @param h height
+     */
+    @Override
+    public void drawRectangle(int x, int y, int w, int h) {
+        record(RECTANGLE, x, y, w, h, null);
+    }
+
+    /**
+     * Records filling a rectangle.
+     *
+     * @param x x coord
+     * @param y y coord
+     * @param w width
+     * @param h height
+     */
+    @Override
+    public void fillRectangle(int x, int y, int w, int h) {
+        record(FILL_RECTANGLE, x, y, w, h, null);
+    }
+
+    /**
+     * Records drawing a polygon.
+     *
+     * @param p the polygon
+     */
+    @Override
+    public void drawPolygon(Polygon p) {
+        record(POLYGON, 0, 0, 0, 0, copy(p));
+    }
+
+    /**
+     * Records filling a polygon.
+     *
+     * @param p the polygon
+     */
+    @Override
+    public void fillPolygon(Polygon p) {
+        record(FILL_POLYGON, 0, 0, 0, 0, copy(p));
+    }
+
+    /**
+     * Records setting the drawing color.
+     *
+     * @param color the color
+     */
+    @Override
+    public void setColor(Color color) {
+        record(COLOR, 0, 0, 0, 0, color);
+    }
+
+    /**
+     * Returns the width of the recorded surface.
+     *
+     * @return surface width
+     */
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the recorded surface.
+     *
+     * @return surface height
+     */
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Records drawing a text.
+     *
+     * @param x        x coord
+     * @param y        y coord
+     * @param s        the text
+     * @param fontSize size of the font
+     */
+    @Override
+    public void drawText(int x, int y, String s, int fontSize) {
+        record(TEXT, x, y, fontSize, 0, s);
+    }
+}
@@ -0,0 +1,122 @@
+package graphics;
+
+/**
+ * Walks the cells of a uniform grid in the order a segment crosses them.
+ * An instance can be reused for many walks, so walking allocates nothing.
+ */
+public class GridTraversal {
+    private int col;
+    private int row;
+    private int stepCol;
+    private int stepRow;
+    private int cellsLeft;
+    private double tMaxX;
+    private double tMaxY;
+    private double tDeltaX;
+    private double tDeltaY;
+
+    /**
+     * Starts a new walk at the cell containing the segment start.
+     *
+     * @param startX     x coordinate of the segment start
+     * @param startY     y coordinate of the segment start
+     * @param endX       x coordinate of the segment end
+     * @param endY       y coordinate of the segment end
+     * @param originX    x coordinate of the grid's upper left corner
+     * @param originY    y coordinate of the grid's upper left corner
+     * @param cellWidth  width of a cell
+     * @param cellHeight height of a cell
+     */
+    public void start(double startX, double startY, double endX, double endY,
+                      double originX, double originY,
+                      double cellWidth, double cellHeight) {
+        double localX = startX - originX;
+        double localY = startY - originY;
+        double dx = endX - startX;
+        double dy = endY - startY;
+        stepCol = (int) Math.signum(dx);
+        stepRow = (int) Math.signum(dy);
+        col = (int) Math.floor(localX / cellWidth);
+        row = (int) Math.floor(localY / cellHeight);
+        int endCol = endCell((endX - originX) / cellWidth, stepCol);
+        int endRow = endCell((endY - originY) / cellHeight, stepRow);
+        cellsLeft = Math.abs(endCol - col) + Math.abs(endRow - row) + 1;
+
+        // Find where the segment crosses the first vertical/horizontal border
+        tMaxX = Double.POSITIVE_INFINITY;
+        tMaxY = Double.POSITIVE_INFINITY;
+        tDeltaX = Double.POSITIVE_INFINITY;
+        tDeltaY = Double.POSITIVE_INFINITY;
+        if (stepCol != 0) {
+            tMaxX = ((col + (stepCol > 0 ? 1 : 0)) * cellWidth - localX) / dx;
+            tDeltaX = cellWidth / Math.abs(dx);
+        }
+        if (stepRow != 0) {
+            tMaxY = ((row + (stepRow > 0 ? 1 : 0)) * cellHeight - localY)
+                    / dy;
+            tDeltaY = cellHeight / Math.abs(dy);
+        }
+    }
+
+    /**
+     * Gets the cell the segment ends in. A segment moving backwards that ends
+     * exactly on a border still reaches the cell behind that border.
+     *
+     * @param coord the end coordinate in cells
+     * @param step  the direction of the segment on this axe
+     * @return the column or row of the last cell
+     */
+    private static int endCell(double coord, int step) {
+        if (step < 0) {
+            return (int) Math.ceil(coord) - 1;
+        }
+        return (int) Math.floor(coord);
+    }
+
+    /**
+     * Moves to the next cell the segment crosses.
+     *
+     * @return false if the segment ends in the current cell
+     */
+    public boolean next() {
+        if (cellsLeft <= 1) {
+            return false;
+        }
+        cellsLeft--;
+        if (tMaxX < tMaxY) {
+            col += stepCol;
+            tMaxX += tDeltaX;
+        } else {
+            row += stepRow;
+            tMaxY += tDeltaY;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the column of the current cell.
+     *
+     * @return current column
+     */
+    public int col() {
+        return col;
+    }
+
+    /**
+     * Gets the row of the current cell.
+     *
+     * @return current row
+     */
+    public int row() {
+        return row;
+    }
+
+    /**
+     * Gets the segment parameter at which it leaves the current cell.
+     *
+     * @return exit parameter, 0 at segment start and 1 at its end
+     */
+    public double exitT() {
+        return Math.min(tMaxX, tMaxY);
+    }
+}
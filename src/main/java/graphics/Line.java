@@ -200,4 +200,108 @@ public class Line {
 
         return intersections;
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks whether this line hits the rectangle.
+     *
+     * @param rect the rectangle
+     * @param hit  receives the hit parameter and side
+     * @return true if the line hits the rectangle
+     */
+    public boolean intersectRectangle(Rectangle rect, SegmentHit hit) {
+        return intersectRectangle(start.getX(), start.getY(), end.getX(),
+                end.getY(), rect.getLeft(), rect.getTop(), rect.getRight(),
+                rect.getBottom(), hit);
+    }
+
+    /**
+     * Finds where a segment first hits the sides of an axis-aligned
+     * rectangle, by clipping it against the x and y slabs of the rectangle.
+     * If the segment starts inside the rectangle, the side it leaves through
+     * is the hit. A hit at the very start of the segment is not counted.
+     *
+     * @param x1     x coordinate of the segment start
+     * @param y1     y coordinate of the segment start
+     * @param x2     x coordinate of the segment end
+     * @param y2     y coordinate of the segment end
+     * @param left   x coordinate of the rectangle's left side
+     * @param top    y coordinate of the rectangle's top side
+     * @param right  x coordinate of the rectangle's right side
+     * @param bottom y coordinate of the rectangle's bottom side
+     * @param hit    receives the hit parameter and side
+     * @return true if the segment hits the rectangle
+     */
+    public static boolean intersectRectangle(double x1, double y1,
+                                             double x2, double y2,
+                                             double left, double top,
+                                             double right, double bottom,
+                                             SegmentHit hit) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double tNear = Double.NEGATIVE_INFINITY;
+        double tFar = Double.POSITIVE_INFINITY;
+        SegmentHit.Side nearSide = null;
+        SegmentHit.Side farSide = null;
+
+        // Clip by the x slab
+        if (dx == 0) {
+            if (x1 < left || x1 > right) {
+                return false; // parallel and outside
+            }
+        } else {
+            double tLeft = (left - x1) / dx;
+            double tRight = (right - x1) / dx;
+            if (dx > 0) {
+                tNear = tLeft;
+                nearSide = SegmentHit.Side.LEFT;
+                tFar = tRight;
+                farSide = SegmentHit.Side.RIGHT;
+            } else {
+                tNear = tRight;
+                nearSide = SegmentHit.Side.RIGHT;
+                tFar = tLeft;
+                farSide = SegmentHit.Side.LEFT;
+            }
+        }
+
+        // Clip by the y slab
+        if (dy == 0) {
+            if (y1 < top || y1 > bottom) {
+                return false; // parallel and outside
+            }
+        } else {
+            double tTop = (top - y1) / dy;
+            double tBottom = (bottom - y1) / dy;
+            double tIn = dy > 0 ? tTop : tBottom;
+            double tOut = dy > 0 ? tBottom : tTop;
+            if (tIn > tNear) {
+                tNear = tIn;
+                nearSide = dy > 0 ? SegmentHit.Side.TOP
+                        : SegmentHit.Side.BOTTOM;
+            }
+            if (tOut < tFar) {
+                tFar = tOut;
+                farSide = dy > 0 ? SegmentHit.Side.BOTTOM
+                        : SegmentHit.Side.TOP;
+            }
+        }
+
+        if (tNear > tFar || nearSide == null) {
+            return false; // misses the rectangle, or no movement at all
+        }
+
+        // Take the entry point, or the exit point if starting inside
+        if (tNear >= 0) {
+            if (tNear == 0 || tNear > 1) {
+                return false;
+            }
+            hit.set(tNear, nearSide);
+        } else {
+            if (tFar <= 0 || tFar > 1) {
+                return false;
+            }
+            hit.set(tFar, farSide);
+        }
+        return true;
+    }
+}
@@ -102,6 +102,15 @@ public class Rectangle implements Shape {
         return height;
     }
 
+    /**
+     * Sets height.
+     *
+     * @param newHeight new height
+     */
+    public void setHeight(double newHeight) {
+        this.height = newHeight;
+    }
+
     /**
      * Returns the left upper vertex.
      *
@@ -0,0 +1,68 @@
+package graphics;
+
+/**
+ * Holds the result of a segment hitting a rectangle: where along the segment
+ * the hit happened and which side of the rectangle was hit. Meant to be
+ * reused between queries, so checking a segment allocates nothing.
+ */
+public class SegmentHit {
+    /**
+     * The side of a rectangle.
+     */
+    public enum Side {
+        LEFT, RIGHT, TOP, BOTTOM
+    }
+
+    private double t = -1;
+    private Side side = null;
+    private int part = -1;
+
+    /**
+     * Gets the hit parameter along the segment: 0 at the start of the
+     * segment and 1 at its end.
+     *
+     * @return the hit parameter
+     */
+    public double getT() {
+        return t;
+    }
+
+    /**
+     * Gets the side of the rectangle that was hit.
+     *
+     * @return the hit side
+     */
+    public Side getSide() {
+        return side;
+    }
+
+    /**
+     * Gets the index of the hit part, for objects made of several parts.
+     *
+     * @return the hit part, -1 if the object has no parts
+     */
+    public int getPart() {
+        return part;
+    }
+
+    /**
+     * Sets the hit.
+     *
+     * @param newT    hit parameter along the segment
+     * @param newSide the side that was hit
+     */
+    public void set(double newT, Side newSide) {
+        t = newT;
+        side = newSide;
+        part = -1;
+    }
+
+    /**
+     * Sets the index of the hit part.
+     *
+     * @param newPart the hit part
+     */
+    public void setPart(int newPart) {
+        part = newPart;
+    }
+}
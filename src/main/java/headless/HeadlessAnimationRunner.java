@@ -0,0 +1,114 @@
+package headless;
+
+import animation.Animation;
+import animation.AnimationRunner;
+import biuoop.DialogManager;
+import biuoop.DrawSurface;
+
+/**
+ * An animation runner without a display. Animations are drawn on a given
+ * surface, the keyboard is a script and the frames run one after another as
+ * fast as possible, each still simulating one frame time.
+ */
+public class HeadlessAnimationRunner extends AnimationRunner {
+    private DrawSurface surface;
+    private ScriptedKeyboardSensor keyboard;
+    private DialogManager dialogs;
+    private long frames = 0;
+    private long maxFrames = Long.MAX_VALUE;
+
+    /**
+     * Creates the runner.
+     *
+     * @param framesPerSecond num of frames to simulate per one second
+     * @param surface         the surface to draw the frames on
+     * @param keyboard        the keyboard script, moved on every frame, or
+     *                        null if the keys come from elsewhere
+     * @param dialogs         answers the dialogs
+     */
+    public HeadlessAnimationRunner(int framesPerSecond, DrawSurface surface,
+                                   ScriptedKeyboardSensor keyboard,
+                                   DialogManager dialogs) {
+        super(framesPerSecond, null);
+        this.surface = surface;
+        this.keyboard = keyboard;
+        this.dialogs = dialogs;
+    }
+
+    /**
+     * Sets the most frames the runner may run. Running more is an error, so
+     * a script that never ends the game does not run forever.
+     *
+     * @param max the frames limit
+     */
+    public void setMaxFrames(long max) {
+        maxFrames = max;
+    }
+
+    /**
+     * Returns the number of frames run so far.
+     *
+     * @return frames count
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Gets the dialog manager to ask the user with.
+     *
+     * @return dialog manager
+     */
+    @Override
+    public DialogManager getDialogManager() {
+        return dialogs;
+    }
+
+    /**
+     * Gets the surface to draw the next frame on.
+     *
+     * @return the draw surface
+     */
+    @Override
+    protected DrawSurface getDrawSurface() {
+        if (surface instanceof ImageDrawSurface) {
+            ((ImageDrawSurface) surface).clear();
+        }
+        return surface;
+    }
+
+    /**
+     * Nothing to show without a display.
+     *
+     * @param d the surface the frame was drawn on
+     */
+    @Override
+    protected void show(DrawSurface d) {
+    }
+
+    /**
+     * Does not wait - the next frame runs right away.
+     *
+     * @param milliseconds time to wait
+     */
+    @Override
+    protected void sleepFor(long milliseconds) {
+    }
+
+    /**
+     * Counts the frame and moves the keyboard script on.
+     *
+     * @param animation the running animation
+     */
+    @Override
+    protected void frameDone(Animation animation) {
+        frames++;
+        if (keyboard != null) {
+            keyboard.nextFrame();
+        }
+        if (frames > maxFrames) {
+            throw new IllegalStateException("Ran more than " + maxFrames
+                    + " frames");
+        }
+    }
+}
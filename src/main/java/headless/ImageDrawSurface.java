@@ -0,0 +1,214 @@
+package headless;
+
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Polygon;
+import java.awt.image.BufferedImage;
+
+/**
+ * A draw surface backed by an image in memory. Draws the same as the gui
+ * does, without a display.
+ */
+public class ImageDrawSurface implements DrawSurface {
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    /**
+     * Creates the surface.
+     *
+     * @param width  surface width
+     * @param height surface height
+     */
+    public ImageDrawSurface(int width, int height) {
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+        clear();
+    }
+
+    /**
+     * Gets the image drawn so far.
+     *
+     * @return the image
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    /**
+     * Clears the surface to white, the way a new gui surface starts.
+     */
+    public void clear() {
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        graphics.setColor(Color.BLACK);
+    }
+
+    /**
+     * Draws an image.
+     *
+     * @param x   x coord
+     * @param y   y coord
+     * @param img the image
+     */
+    @Override
+    public void drawImage(int x, int y, Image img) {
+        graphics.drawImage(img, x, y, null);
+    }
+
+    /**
+     * Draws a circle.
+     *
+     * @param x x coord of the center
+     * @param y y coord of the center
+     * @param r radius
+     */
+    @Override
+    public void drawCircle(int x, int y, int r) {
+        graphics.drawOval(x - r, y - r, 2 * r, 2 * r);
+    }
+
+    /**
+     * Fills a circle.
+     *
+     * @param x x coord of the center
+     * @param y y coord of the center
+     * @param r radius
+     */
+    @Override
+    public void fillCircle(int x, int y, int r) {
+        graphics.fillOval(x - r, y - r, 2 * r, 2 * r);
+    }
+
+    /**
+     * Draws an oval.
+     *
+     * @param x x coord
+     * @param y y coord
+     * @param w width
+     * @param h height
+     */
+    @Override
+    public void drawOval(int x, int y, int w, int h) {
+        graphics.drawOval(x, y, w, h);
+    }
+
+    /**
+     * Fills an oval.
+     *
+     * @param x x coord
+     * @param y y coord
+     * @param w width
+     * @param h height
+     */
+    @Override
+    public void fillOval(int x, int y, int w, int h) {
+        graphics.fillOval(x, y, w, h);
+    }
+
+    /**
+     * Draws a line.
+     *
+     * @param x1 x coord of the start
+     * @param y1 y coord of the start
+     * @param x2 x coord of the end
+     * @param y2 y coord of the end
+     */
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        graphics.drawLine(x1, y1, x2, y2);
+    }
+
+    /**
+     * Draws a rectangle.
+     *
+     * @param x x coord
+     * @param y y coord
+     * @param w width
+     * @param h height
+     */
+    @Override
+    public void drawRectangle(int x, int y, int w, int h) {
+        graphics.drawRect(x, y, w, h);
+    }
+
+    /**
+     * Fills a rectangle.
+     *
+     * @param x x coord
+     * @param y y coord
+     * @param w width
+     * @param h height
+     */
+    @Override
+    public void fillRectangle(int x, int y, int w, int h) {
+        graphics.fillRect(x, y, w, h);
+    }
+
+    /**
+     * Draws a polygon.
+     *
+     * @param p the polygon
+     */
+    @Override
+    public void drawPolygon(Polygon p) {
+        graphics.drawPolygon(p);
+    }
+
+    /**
+     * Fills a polygon.
+     *
+     * @param p the polygon
+     */
+    @Override
+    public void fillPolygon(Polygon p) {
+        graphics.fillPolygon(p);
+    }
+
+    /**
+     * Sets the drawing color.
+     *
+     * @param color the color
+     */
+    @Override
+    public void setColor(Color color) {
+        graphics.setColor(color);
+    }
+
+    /**
+     * Returns the surface width.
+     *
+     * @return surface width
+     */
+    @Override
+    public int getWidth() {
+        return image.getWidth();
+    }
+
+    /**
+     * Returns the surface height.
+     *
+     * @return surface height
+     */
+    @Override
+    public int getHeight() {
+        return image.getHeight();
+    }
+
+    /**
+     * Draws a text.
+     *
+     * @param x        x coord
+     * @param y        y coord
+     * @param s        the text
+     * @param fontSize size of the font
+     */
+    @Override
+    public void drawText(int x, int y, String s, int fontSize) {
+        graphics.setFont(new Font("Dialog", Font.PLAIN, fontSize));
+        graphics.drawString(s, x, y);
+    }
+}
@@ -0,0 +1,179 @@
+package headless;
+
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Polygon;
+
+/**
+ * A draw surface that draws nothing. Used to run the game where only the
+ * simulation matters.
+ */
+public class NullDrawSurface implements DrawSurface {
+    private int width;
+    private int height;
+
+    /**
+     * Creates the surface.
+     *
+     * @param width  surface width
+     * @param height surface height
+     */
+    public NullDrawSurface(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Draws nothing.
+     *
+     * @param x   x coord
+     * @param y   y coord
+     * @param img the image
+     */
+    @Override
+    public void drawImage(int x, int y, Image img) {
+    }
+
+    /**
+     * Draws nothing.
+     *
+     * @param x x coord of the center
+     * @param y y coord of the center
+     * @param r radius
+     */
+    @Override
+    public void drawCircle(int x, int y, int r) {
+    }
+
+    /**
+     * Draws nothing.
+     *
+     * @param x x coord of the center
+     * @param y y coord of the center
+     * @param r radius
+     */
+    @Override
+    public void fillCircle(int x, int y, int r) {
+    }
+
+    /**
+     * Draws nothing.
+     *
+     * @param x x coord
+     * @param y y coord
+     * @param w width
+     * @param h height
+     */
+    @Override
+    public void drawOval(int x, int y, int w, int h) {
+    }
+
+    /**
+     * Draws nothing.
+     *
+     * @param x x coord
+     * @param y y coord
+     * @param w width
+     * @param h height
+     */
+    @Override
+    public void fillOval(int x, int y, int w, int h) {
+    }
+
+    /**
+     * Draws nothing.
+     *
+     * @param x1 x coord of the start
+     * @param y1 y coord of the start
+     * @param x2 x coord of the end
+     * @param y2 y coord of the end
+     */
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+    }
+
+    /**
+     * Draws nothing.
+     *
+     * @param x x coord
+     * @param y y coord
+     * @param w width
+     * @param h height
+     */
+    @Override
+    public void drawRectangle(int x, int y, int w, int h) {
+    }
+
+    /**
+     * Draws nothing.
+     *
+     * @param x x coord
+     * @param y y coord
+     * @param w width
+     * @param h height
+     */
+    @Override
+    public void fillRectangle(int x, int y, int w, int h) {
+    }
+
+    /**
+     * Draws nothing.
+     *
+     * @param p the polygon
+     */
+    @Override
+    public void drawPolygon(Polygon p) {
+    }
+
+    /**
+     * Draws nothing.
+     *
+     * @param p the polygon
+     */
+    @Override
+    public void fillPolygon(Polygon p) {
+    }
+
+    /**
+     * Ignores the color.
+     *
+     * @param color the color
+     */
+    @Override
+    public void setColor(Color color) {
+    }
+
+    /**
+     * Returns the surface width.
+     *
+     * @return surface width
+     */
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the surface height.
+     *
+     * @return surface height
+     */
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Draws nothing.
+     *
+     * @param x        x coord
+     * @param y        y coord
+     * @param s        the text
+     * @param fontSize size of the font
+     */
+    @Override
+    public void drawText(int x, int y, String s, int fontSize) {
+    }
+}
@@ -0,0 +1,59 @@
+package headless;
+
+import biuoop.DialogManager;
+
+/**
+ * A dialog manager that answers every dialog with preset answers instead of
+ * asking the user.
+ */
+public class ScriptedDialogManager implements DialogManager {
+    private String answer;
+    private boolean yes;
+
+    /**
+     * Creates the dialog manager.
+     *
+     * @param answer the answer to question dialogs
+     * @param yes    the answer to yes/no dialogs
+     */
+    public ScriptedDialogManager(String answer, boolean yes) {
+        this.answer = answer;
+        this.yes = yes;
+    }
+
+    /**
+     * Shows nothing.
+     *
+     * @param title   dialog title
+     * @param message dialog message
+     */
+    @Override
+    public void showInformationDialog(String title, String message) {
+    }
+
+    /**
+     * Answers a question with the preset answer.
+     *
+     * @param title        dialog title
+     * @param message      dialog message
+     * @param defaultValue the default answer
+     * @return the preset answer
+     */
+    @Override
+    public String showQuestionDialog(String title, String message,
+                                     String defaultValue) {
+        return answer;
+    }
+
+    /**
+     * Answers a yes/no question with the preset answer.
+     *
+     * @param title   dialog title
+     * @param message dialog message
+     * @return the preset answer
+     */
+    @Override
+    public boolean showYesNoDialog(String title, String message) {
+        return yes;
+    }
+}
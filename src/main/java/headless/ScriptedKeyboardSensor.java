@@ -0,0 +1,118 @@
+package headless;
+
+import biuoop.KeyboardSensor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A keyboard sensor that plays a script of key presses, frame by frame. The
+ * runner moves the sensor to the next frame after every frame it runs.
+ */
+public class ScriptedKeyboardSensor implements KeyboardSensor {
+    private List<Press> presses = new ArrayList<Press>();
+    private long frame = 0;
+
+    /**
+     * A key held for a number of frames, once or again every period.
+     */
+    private static final class Press {
+        private String key;
+        private long from;
+        private long frames;
+        private long period;
+
+        /**
+         * Creates a press.
+         *
+         * @param key    the pressed key
+         * @param from   first frame the key is pressed in
+         * @param frames number of frames the key is held
+         * @param period frames between two presses, 0 to press once
+         */
+        private Press(String key, long from, long frames, long period) {
+            this.key = key;
+            this.from = from;
+            this.frames = frames;
+            this.period = period;
+        }
+
+        /**
+         * Checks whether the key is held in a frame.
+         *
+         * @param frameNum the frame
+         * @return true if held
+         */
+        private boolean isHeldIn(long frameNum) {
+            if (frameNum < from) {
+                return false;
+            }
+            long offset = frameNum - from;
+            if (period > 0) {
+                offset %= period;
+            }
+            return offset < frames;
+        }
+    }
+
+    /**
+     * Holds a key for some frames.
+     *
+     * @param key    the key
+     * @param from   first frame the key is pressed in
+     * @param frames number of frames the key is held
+     * @return this sensor, to add more presses
+     */
+    public ScriptedKeyboardSensor press(String key, long from, long frames) {
+        presses.add(new Press(key, from, frames, 0));
+        return this;
+    }
+
+    /**
+     * Holds a key for some frames, again and again.
+     *
+     * @param key    the key
+     * @param from   first frame the key is pressed in
+     * @param frames number of frames the key is held every time
+     * @param period frames from one press to the next
+     * @return this sensor, to add more presses
+     */
+    public ScriptedKeyboardSensor repeat(String key, long from, long frames,
+                                         long period) {
+        presses.add(new Press(key, from, frames, period));
+        return this;
+    }
+
+    /**
+     * Moves the script to the next frame.
+     */
+    public void nextFrame() {
+        frame++;
+    }
+
+    /**
+     * Returns the current frame of the script.
+     *
+     * @return frame number, starting at 0
+     */
+    public long getFrame() {
+        return frame;
+    }
+
+    /**
+     * Checks whether a key is pressed in the current frame.
+     *
+     * @param key the key
+     * @return true if pressed
+     */
+    @Override
+    public boolean isPressed(String key) {
+        for (int i = 0; i < presses.size(); i++) {
+            Press press = presses.get(i);
+            if (press.key.equals(key) && press.isHeldIn(frame)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
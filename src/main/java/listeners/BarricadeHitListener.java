@@ -0,0 +1,18 @@
+package listeners;
+
+import sprites.Barricade;
+import sprites.bullet.Bullet;
+
+/**
+ * Listens to hits on the blocks of a barricade.
+ */
+public interface BarricadeHitListener {
+    /**
+     * This method is called whenever a block of the barricade is hit.
+     *
+     * @param barricade the barricade that was hit
+     * @param block     index of the hit block
+     * @param hitter    the bullet that hit the block
+     */
+    void blockHit(Barricade barricade, int block, Bullet hitter);
+}
@@ -3,43 +3,36 @@ package listeners;
 import animation.GameLevel;
 import sprites.Barricade;
 import sprites.bullet.Bullet;
-import sprites.collidables.Block;
-import sprites.collidables.Collidable;
 
 /**
  * Class in charge of removing hit blocks from the game.
  */
-public class BlockRemover implements HitListener {
+public class BlockRemover implements BarricadeHitListener {
     private GameLevel gameLevel;
-    private Barricade barricade;
 
     /**
      * Constructs the block remover.
      *
      * @param gameLevel reference to a gameLevel object
-     * @param barricade the barricade the block belongs to
      */
-    public BlockRemover(GameLevel gameLevel, Barricade barricade) {
+    public BlockRemover(GameLevel gameLevel) {
         this.gameLevel = gameLevel;
-        this.barricade = barricade;
     }
 
 
     /**
-     * If the hit block reached 0 hit points - remove it.
+     * Removes the hit block of the barricade.
      *
-     * @param beingHit the object that was hit
-     * @param hitter   the bullet that hit the object
+     * @param barricade the barricade that was hit
+     * @param block     index of the hit block
+     * @param hitter    the bullet that hit the block
      */
     @Override
-    public void hitEvent(Collidable beingHit, Bullet hitter) {
+    public void blockHit(Barricade barricade, int block, Bullet hitter) {
         // Remove the bullet
         hitter.removeFromGame(gameLevel);
 
-        // Remove the alien
-        Block blockHit = (Block) beingHit;
-        blockHit.removeHitListener(this);
-        blockHit.removeFromGame(gameLevel);
-        barricade.removeBlock(blockHit);
+        // Remove the block
+        barricade.removeBlock(block);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,83 @@
+package listeners;
+
+import sprites.bullet.Bullet;
+import sprites.collidables.Collidable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The hit listeners of a hit notifier. The listeners may add or remove
+ * listeners while they are notified, so they are notified from a copy of
+ * the list - one copy array kept for all the hits, so a hit allocates
+ * nothing. A listener that causes another hit on the same object while it
+ * is notified gets a copy of its own, so the outer notification goes on
+ * undisturbed.
+ */
+public class HitListeners {
+    private List<HitListener> listeners = new ArrayList<HitListener>();
+    private HitListener[] notified = new HitListener[0];
+    private boolean notifying = false;
+
+    /**
+     * Adds a listener.
+     *
+     * @param hl the listener to add
+     */
+    public void add(HitListener hl) {
+        listeners.add(hl);
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param hl the listener to remove
+     */
+    public void remove(HitListener hl) {
+        listeners.remove(hl);
+    }
+
+    /**
+     * Removes all the listeners.
+     */
+    public void clear() {
+        listeners.clear();
+    }
+
+    /**
+     * Notifies all the listeners about a hit.
+     *
+     * @param beingHit the object that was hit
+     * @param hitter   the bullet that hit the object
+     */
+    public void notifyHit(Collidable beingHit, Bullet hitter) {
+        // Make a copy of the listeners before notifying them
+        int count = listeners.size();
+        HitListener[] copy;
+        if (notifying) {
+            copy = new HitListener[count]; // the shared copy is in use
+        } else {
+            if (notified.length < count) {
+                notified = new HitListener[count];
+            }
+            copy = notified;
+        }
+        for (int i = 0; i < count; i++) {
+            copy[i] = listeners.get(i);
+        }
+
+        boolean outer = !notifying;
+        notifying = true;
+        try {
+            for (int i = 0; i < count; i++) {
+                HitListener hl = copy[i];
+                copy[i] = null;
+                hl.hitEvent(beingHit, hitter);
+            }
+        } finally {
+            if (outer) {
+                notifying = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package replay;
+
+import animation.InputLatch;
+import animation.SavePointListener;
+import biuoop.KeyboardSensor;
+import gameplay.GameFlow;
+import utils.StateBuffer;
+
+import java.io.IOException;
+
+/**
+ * A keyboard sensor that records a game. The keys are read from the real
+ * keyboard once per tick, when the runner latches them, and written to a
+ * replay. The game sees exactly the recorded keys - no other key, and no
+ * change within a tick. It can also record keyframes of the game every few
+ * seconds, so the replay can be played from the middle.
+ */
+public class RecordingKeyboardSensor implements KeyboardSensor, InputLatch,
+        SavePointListener {
+    private KeyboardSensor keyboard;
+    private ReplayWriter writer;
+    private int keys = 0;
+    private GameFlow flow = null;
+    private StateBuffer state = new StateBuffer();
+    private long keyframeFrames;
+    private long nextKeyframe;
+
+    /**
+     * Creates the sensor.
+     *
+     * @param keyboard the real keyboard
+     * @param writer   the replay to record to
+     */
+    public RecordingKeyboardSensor(KeyboardSensor keyboard,
+                                   ReplayWriter writer) {
+        this.keyboard = keyboard;
+        this.writer = writer;
+    }
+
+    /**
+     * Reads the keys of the next tick and records them.
+     */
+    @Override
+    public void latch() {
+        keys = ReplayKeys.read(keyboard);
+        writer.addFrame(keys);
+    }
+
+    /**
+     * Records keyframes of a game at its save points, one every few seconds
+     * of ticks at most. Must be called before the game is run.
+     *
+     * @param game    the recorded game
+     * @param seconds seconds of ticks between keyframes
+     */
+    public void recordKeyframes(GameFlow game, int seconds) {
+        flow = game;
+        keyframeFrames = (long) writer.getFramesPerSec() * seconds;
+        nextKeyframe = keyframeFrames;
+        flow.setSavePointListener(this);
+    }
+
+    /**
+     * Records a keyframe if enough ticks have passed since the last one.
+     */
+    @Override
+    public void savePoint() {
+        if (writer.getFrames() < nextKeyframe) {
+            return;
+        }
+        state.clear();
+        flow.saveState(state);
+        writer.addSnapshot(state.getBytes());
+        nextKeyframe = writer.getFrames() + keyframeFrames;
+    }
+
+    /**
+     * Checks whether a key was pressed when the tick started.
+     *
+     * @param key the key
+     * @return true if pressed
+     */
+    @Override
+    public boolean isPressed(String key) {
+        return ReplayKeys.isPressed(keys, key);
+    }
+
+    /**
+     * Ends the recording.
+     *
+     * @param stateHash the game's final state hash
+     * @throws IOException problem writing the replay
+     */
+    public void close(long stateHash) throws IOException {
+        writer.close(stateHash);
+    }
+}
@@ -0,0 +1,29 @@
+package replay;
+
+/**
+ * Thrown when a game played from a replay reads past the replay's last
+ * tick - the recorded game was cut short, or went another way.
+ */
+public class ReplayEndedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    private final long frames;
+
+    /**
+     * Creates the exception.
+     *
+     * @param frames ticks played from the replay
+     */
+    public ReplayEndedException(long frames) {
+        super("Replay ended after " + frames + " ticks");
+        this.frames = frames;
+    }
+
+    /**
+     * Returns the number of ticks played from the replay.
+     *
+     * @return ticks count
+     */
+    public long getFrames() {
+        return frames;
+    }
+}
@@ -0,0 +1,106 @@
+package replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The layout of a replay file. A header (see ReplayHeader) is followed by
+ * records, each starting with a tag byte. A tag up to KEYS_MASK is a run of
+ * ticks with the same keys held - the tag is the keys and a variable length
+ * count of ticks follows. The SNAPSHOT tag is a keyframe - the state of the
+ * game at a save point, so it can be played from there instead of from its
+ * first tick. The number of ticks before it and the length of the state
+ * follow as variable length numbers, then the state's bytes.
+ * <p>
+ * The END tag closes the file, followed by the number of ticks and the
+ * final state hash as two longs, then the index of the keyframes: their
+ * count as an int, and the tick and the file offset of every keyframe as
+ * two longs. The file ends with a footer - the offset of the END record as
+ * a long, and the magic number again.
+ * <p>
+ * A variable length number is written 7 bits a byte, the lowest first, with
+ * the top bit set on every byte but the last.
+ */
+final class ReplayFormat {
+    static final int MAGIC = 0x53495250; // "SIRP"
+    static final int VERSION = 2;
+    static final int KEYS_MASK = 0x0F;
+    static final int SNAPSHOT = 0x40;
+    static final int END = 0x7F;
+    static final int MAX_VAR_LONG = 10; // bytes of the longest number
+    static final int TRAILER = 1 + 8 + 8 + 4;
+    static final int INDEX_ENTRY = 8 + 8;
+    static final int FOOTER = 8 + 4;
+
+    /**
+     * Not to be created.
+     */
+    private ReplayFormat() {
+    }
+
+    /**
+     * Writes a variable length number.
+     *
+     * @param buf   the buffer
+     * @param pos   where to write
+     * @param value the number, not negative
+     * @return the position after the number
+     */
+    static int putVarLong(byte[] buf, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+        return pos;
+    }
+
+    /**
+     * Writes a long, the highest byte first.
+     *
+     * @param buf   the buffer
+     * @param pos   where to write
+     * @param value the long
+     * @return the position after the long
+     */
+    static int putLong(byte[] buf, int pos, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buf[pos++] = (byte) (value >>> shift);
+        }
+        return pos;
+    }
+
+    /**
+     * Writes an int, the highest byte first.
+     *
+     * @param buf   the buffer
+     * @param pos   where to write
+     * @param value the int
+     * @return the position after the int
+     */
+    static int putInt(byte[] buf, int pos, int value) {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            buf[pos++] = (byte) (value >>> shift);
+        }
+        return pos;
+    }
+
+    /**
+     * Reads a variable length number.
+     *
+     * @param in the input
+     * @return the number
+     * @throws IOException a malformed number
+     */
+    static long readVarLong(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.get() & 0xFF;
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed number in replay");
+    }
+}
@@ -0,0 +1,121 @@
+package replay;
+
+import animation.AnimationRunner;
+import biuoop.KeyboardSensor;
+import gameplay.GameFlow;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Everything a recorded game was set up with: the seed of its random
+ * numbers, the simulated frames per second, the lives and the kind of game.
+ * Played with the same setup and the same keys, the game goes exactly the
+ * same way.
+ */
+public class ReplayHeader {
+    private long seed;
+    private int framesPerSec;
+    private int lives;
+    private boolean bulletHell;
+    private int cols;
+    private int rows;
+
+    /**
+     * Creates a header.
+     *
+     * @param seed         seed of the game's random numbers
+     * @param framesPerSec simulated frames (ticks) per second
+     * @param lives        lives the game started with
+     * @param bulletHell   true for a bullet hell game
+     * @param cols         columns of the aliens formation
+     * @param rows         rows of the aliens formation
+     */
+    public ReplayHeader(long seed, int framesPerSec, int lives,
+                        boolean bulletHell, int cols, int rows) {
+        this.seed = seed;
+        this.framesPerSec = framesPerSec;
+        this.lives = lives;
+        this.bulletHell = bulletHell;
+        this.cols = cols;
+        this.rows = rows;
+    }
+
+    /**
+     * Returns the seed of the game's random numbers.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the simulated frames per second.
+     *
+     * @return frames per second
+     */
+    public int getFramesPerSec() {
+        return framesPerSec;
+    }
+
+    /**
+     * Creates a game flow set up like the recorded game.
+     *
+     * @param runner   the animation runner
+     * @param keyboard the keyboard sensor, usually playing the replay
+     * @return the game flow
+     * @throws IOException problem with file
+     */
+    public GameFlow createFlow(AnimationRunner runner,
+                               KeyboardSensor keyboard) throws IOException {
+        GameFlow flow = new GameFlow(runner, keyboard, lives);
+        flow.setSeed(seed);
+        flow.setBulletHell(bulletHell);
+        flow.setFormation(cols, rows);
+        return flow;
+    }
+
+    /**
+     * Writes the header.
+     *
+     * @param out the output
+     * @throws IOException problem writing
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(ReplayFormat.MAGIC);
+        out.writeByte(ReplayFormat.VERSION);
+        out.writeLong(seed);
+        out.writeInt(framesPerSec);
+        out.writeInt(lives);
+        out.writeBoolean(bulletHell);
+        out.writeInt(cols);
+        out.writeInt(rows);
+    }
+
+    /**
+     * Reads a header.
+     *
+     * @param in the input, at the start of the file
+     * @return the header
+     * @throws IOException not a replay
+     */
+    static ReplayHeader read(ByteBuffer in) throws IOException {
+        if (in.remaining() < 4 || in.getInt() != ReplayFormat.MAGIC) {
+            throw new IOException("Not a replay file");
+        }
+        int version = in.get() & 0xFF;
+        if (version != ReplayFormat.VERSION) {
+            throw new IOException("Unknown replay version " + version);
+        }
+        long seed = in.getLong();
+        int framesPerSec = in.getInt();
+        int lives = in.getInt();
+        boolean bulletHell = in.get() != 0;
+        int cols = in.getInt();
+        int rows = in.getInt();
+        return new ReplayHeader(seed, framesPerSec, lives, bulletHell,
+                cols, rows);
+    }
+}
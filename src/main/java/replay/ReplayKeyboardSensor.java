@@ -0,0 +1,55 @@
+package replay;
+
+import animation.InputLatch;
+import biuoop.KeyboardSensor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * A keyboard sensor that plays a replay, tick by tick. The runner moves it
+ * to the next tick by latching it.
+ */
+public class ReplayKeyboardSensor implements KeyboardSensor, InputLatch {
+    private ReplayReader reader;
+    private int keys = 0;
+
+    /**
+     * Creates the sensor.
+     *
+     * @param reader the replay to play
+     */
+    public ReplayKeyboardSensor(ReplayReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Moves to the keys of the next tick.
+     *
+     * @throws ReplayEndedException if the replay has no more ticks
+     */
+    @Override
+    public void latch() {
+        int next;
+        try {
+            next = reader.nextKeys();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (next < 0) {
+            throw new ReplayEndedException(reader.getFrames());
+        }
+        keys = next;
+    }
+
+    /**
+     * Checks whether a key is pressed in the current tick.
+     *
+     * @param key the key
+     * @return true if pressed
+     */
+    @Override
+    public boolean isPressed(String key) {
+        return ReplayKeys.isPressed(keys, key);
+    }
+}
@@ -0,0 +1,75 @@
+package replay;
+
+import biuoop.KeyboardSensor;
+
+/**
+ * The keys the game play reads, packed one bit a key. A replay records these
+ * bits for every tick - the game reads no other key while a level runs.
+ */
+public final class ReplayKeys {
+    public static final int LEFT = 1;
+    public static final int RIGHT = 2;
+    public static final int SPACE = 4;
+    public static final int PAUSE = 8;
+    private static final String PAUSE_KEY = "p";
+
+    /**
+     * Not to be created.
+     */
+    private ReplayKeys() {
+    }
+
+    /**
+     * Reads the recorded keys from a keyboard.
+     *
+     * @param keyboard the keyboard
+     * @return the bits of the pressed keys
+     */
+    public static int read(KeyboardSensor keyboard) {
+        int keys = 0;
+        if (keyboard.isPressed(KeyboardSensor.LEFT_KEY)) {
+            keys |= LEFT;
+        }
+        if (keyboard.isPressed(KeyboardSensor.RIGHT_KEY)) {
+            keys |= RIGHT;
+        }
+        if (keyboard.isPressed(KeyboardSensor.SPACE_KEY)) {
+            keys |= SPACE;
+        }
+        if (keyboard.isPressed(PAUSE_KEY)) {
+            keys |= PAUSE;
+        }
+        return keys;
+    }
+
+    /**
+     * Checks whether a key is pressed. Keys that are not recorded are never
+     * pressed.
+     *
+     * @param keys the bits of the pressed keys
+     * @param key  the key
+     * @return true if pressed
+     */
+    public static boolean isPressed(int keys, String key) {
+        return (keys & bit(key)) != 0;
+    }
+
+    /**
+     * Returns the bit of a key.
+     *
+     * @param key the key
+     * @return the key's bit, 0 if it is not recorded
+     */
+    private static int bit(String key) {
+        if (KeyboardSensor.LEFT_KEY.equals(key)) {
+            return LEFT;
+        } else if (KeyboardSensor.RIGHT_KEY.equals(key)) {
+            return RIGHT;
+        } else if (KeyboardSensor.SPACE_KEY.equals(key)) {
+            return SPACE;
+        } else if (PAUSE_KEY.equals(key)) {
+            return PAUSE;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,127 @@
+package replay;
+
+import animation.AnimationRunner;
+import animation.PacingProfile;
+import gameplay.GameFlow;
+import headless.HeadlessAnimationRunner;
+import headless.NullDrawSurface;
+import headless.ScriptedDialogManager;
+import utils.Consts;
+import utils.StateBuffer;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Plays a recorded game again, without a display as fast as possible, or in
+ * a window in real time. At the end checks that the game ended on the tick
+ * and with the state hash it was recorded with, and exits with an error if
+ * it did not. Only a recording cut short, without its end record, cannot be
+ * checked. No high score is saved.
+ * <p>
+ * A replay can be played from the middle: the game is restored from the
+ * last keyframe before the wanted time, and played on from there.
+ */
+public final class ReplayPlayer {
+
+    /**
+     * Not to be created.
+     */
+    private ReplayPlayer() {
+    }
+
+    /**
+     * Plays the replay.
+     *
+     * @param args the replay file, then "realtime" to play it in a window,
+     *             and the seconds to play it from
+     * @throws IOException problem with the files
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: ReplayPlayer <replay file> "
+                    + "[realtime] [from seconds]");
+            System.exit(2);
+        }
+        boolean realTime = false;
+        double fromSeconds = 0;
+        for (int i = 1; i < args.length; i++) {
+            if ("realtime".equals(args[i])) {
+                realTime = true;
+            } else {
+                fromSeconds = Double.parseDouble(args[i]);
+            }
+        }
+        ReplayReader reader = new ReplayReader(new File(args[0]));
+        ReplayHeader header = reader.getHeader();
+        ReplayKeyboardSensor keyboard = new ReplayKeyboardSensor(reader);
+
+        // Jump to the last keyframe before the wanted time
+        StateBuffer keyframe = null;
+        if (fromSeconds > 0) {
+            keyframe = reader.seek(
+                    (long) (fromSeconds * header.getFramesPerSec()));
+            if (keyframe == null) {
+                System.out.println("No keyframe before " + fromSeconds
+                        + "s, playing from the start");
+            } else {
+                System.out.println("Playing from the keyframe at tick "
+                        + reader.getFrames());
+            }
+        }
+
+        AnimationRunner runner;
+        if (realTime) {
+            runner = new AnimationRunner(header.getFramesPerSec());
+            runner.setFixedStep(true);
+            runner.setPacing(PacingProfile.LOW_LATENCY);
+        } else {
+            Consts consts = Consts.getInstance();
+            runner = new HeadlessAnimationRunner(header.getFramesPerSec(),
+                    new NullDrawSurface(consts.getGameWidth(),
+                            consts.getGameHeight()),
+                    null, new ScriptedDialogManager("replay", true));
+        }
+        runner.setInputLatch(keyboard);
+
+        GameFlow flow = header.createFlow(runner, keyboard);
+        flow.setScoresFile(null);
+        boolean gameOver = true;
+        try {
+            if (keyframe == null) {
+                flow.runLevels();
+            } else {
+                flow.resumeLevels(keyframe);
+            }
+        } catch (ReplayEndedException e) {
+            gameOver = false;
+        }
+        long played = reader.getFrames();
+        boolean ticksLeft = gameOver && reader.nextKeys() >= 0;
+        boolean recorded = reader.hasEnd();
+        reader.close();
+
+        long hash = flow.getStateHash().getValue();
+        System.out.println("Played " + played + " ticks, seed "
+                + header.getSeed() + ", state hash " + flow.getStateHash());
+        int status = 1;
+        if (!recorded) {
+            System.out.println("The recording is cut short - the hash "
+                    + "cannot be checked");
+            status = 0;
+        } else if (!gameOver) {
+            System.out.println("DIVERGED: the game went on after the "
+                    + reader.getRecordedFrames() + " recorded ticks");
+        } else if (ticksLeft) {
+            System.out.println("DIVERGED: the game ended before the "
+                    + reader.getRecordedFrames() + " recorded ticks");
+        } else if (hash != reader.getRecordedHash()) {
+            System.out.println("DIVERGED: recorded with state hash "
+                    + String.format("%016x", reader.getRecordedHash()));
+        } else {
+            System.out.println("Replay reproduced the recorded game");
+            status = 0;
+        }
+        System.exit(status);
+    }
+}
@@ -0,0 +1,345 @@
+package replay;
+
+import utils.StateBuffer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads a replay file tick by tick. The file is mapped into memory, so
+ * seeking to a keyframe is only a jump to its offset. A file cut short,
+ * because the recorded game was killed, reads up to where it was cut, and
+ * its keyframes are found by going over the whole file.
+ */
+public class ReplayReader implements Closeable {
+    private static final int INIT_KEYFRAMES = 64;
+    private FileChannel channel;
+    private MappedByteBuffer in;
+    private int dataStart;
+    private ReplayHeader header;
+    private int runKeys = 0;
+    private long runLeft = 0;
+    private long frames = 0;
+    private boolean ended = false;
+    private boolean complete = false;
+    private boolean hasEnd = false;
+    private long recordedFrames = 0;
+    private long recordedHash = 0;
+    private long[] keyframeTicks = null;
+    private int[] keyframeOffsets = null;
+
+    /**
+     * Opens a replay file and reads its header.
+     *
+     * @param file the replay file
+     * @throws IOException problem reading, or not a replay
+     */
+    public ReplayReader(File file) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Replay too big to map: " + size);
+            }
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            header = ReplayHeader.read(in);
+            dataStart = in.position();
+        } catch (BufferUnderflowException e) {
+            channel.close();
+            throw new IOException("Replay header cut short");
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the setup of the recorded game.
+     *
+     * @return the header
+     */
+    public ReplayHeader getHeader() {
+        return header;
+    }
+
+    /**
+     * Reads the keys of the next tick.
+     *
+     * @return the bits of the pressed keys, -1 after the last tick
+     * @throws IOException a malformed file
+     */
+    public int nextKeys() throws IOException {
+        if (runLeft == 0 && !readRun()) {
+            return -1;
+        }
+        runLeft--;
+        frames++;
+        return runKeys;
+    }
+
+    /**
+     * Returns the number of ticks read so far, or skipped by a seek.
+     *
+     * @return ticks count
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Returns whether the whole file was read, to its end record. A file
+     * cut short never is.
+     *
+     * @return true if complete
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Returns whether the file has its end record, that is whether the
+     * recorded game was over when the file was written. Read from the
+     * footer, without going over the file.
+     *
+     * @return true if the file has its end record
+     * @throws IOException a malformed file
+     */
+    public boolean hasEnd() throws IOException {
+        if (keyframeTicks == null) {
+            readIndex();
+        }
+        return hasEnd;
+    }
+
+    /**
+     * Returns the number of ticks the recorded game lasted. Known once the
+     * file is complete, or once it is found to have its end record.
+     *
+     * @return ticks count
+     */
+    public long getRecordedFrames() {
+        return recordedFrames;
+    }
+
+    /**
+     * Returns the state hash the recorded game ended with. Known once the
+     * file is complete, or once it is found to have its end record.
+     *
+     * @return the state hash
+     */
+    public long getRecordedHash() {
+        return recordedHash;
+    }
+
+    /**
+     * Jumps to the latest keyframe at or before a tick. The next keys read
+     * are of the tick after the keyframe. Does nothing if there is no such
+     * keyframe.
+     *
+     * @param tick the tick to seek to
+     * @return the game's state at the keyframe, to resume the game from, or
+     * null if there is no keyframe before the tick
+     * @throws IOException a malformed file
+     */
+    public StateBuffer seek(long tick) throws IOException {
+        if (keyframeTicks == null) {
+            readIndex();
+        }
+
+        // The keyframes are in the order of their ticks
+        int found = -1;
+        for (int i = 0; i < keyframeTicks.length; i++) {
+            if (keyframeTicks[i] > tick) {
+                break;
+            }
+            found = i;
+        }
+        if (found < 0) {
+            return null;
+        }
+
+        try {
+            in.position(keyframeOffsets[found]);
+            if ((in.get() & 0xFF) != ReplayFormat.SNAPSHOT) {
+                throw new IOException("No keyframe at offset "
+                        + keyframeOffsets[found]);
+            }
+            long keyframeTick = ReplayFormat.readVarLong(in);
+            int length = (int) ReplayFormat.readVarLong(in);
+            ByteBuffer state = in.slice();
+            state.limit(length);
+            in.position(in.position() + length);
+            frames = keyframeTick;
+            runLeft = 0;
+            ended = false;
+            complete = false;
+            return new StateBuffer(state);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Keyframe cut short");
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Keyframe cut short");
+        }
+    }
+
+    /**
+     * Returns the ticks of the keyframes, in their order.
+     *
+     * @return the keyframes' ticks
+     * @throws IOException a malformed file
+     */
+    public long[] getKeyframeTicks() throws IOException {
+        if (keyframeTicks == null) {
+            readIndex();
+        }
+        return keyframeTicks.clone();
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException problem closing
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads the index of the keyframes, and the ticks count and the hash of
+     * the end record, from the end of the file. A file without its footer
+     * was cut short, and is gone over to find the keyframes.
+     *
+     * @throws IOException a malformed file
+     */
+    private void readIndex() throws IOException {
+        int size = in.limit();
+        if (size - dataStart >= ReplayFormat.TRAILER + ReplayFormat.FOOTER
+                && in.getInt(size - 4) == ReplayFormat.MAGIC) {
+            long endOffset = in.getLong(size - ReplayFormat.FOOTER);
+            if (endOffset < dataStart || endOffset > size
+                    - ReplayFormat.TRAILER - ReplayFormat.FOOTER
+                    || (in.get((int) endOffset) & 0xFF) != ReplayFormat.END) {
+                throw new IOException("Malformed replay footer");
+            }
+            recordedFrames = in.getLong((int) endOffset + 1);
+            recordedHash = in.getLong((int) endOffset + 1 + 8);
+            hasEnd = true;
+            int index = (int) endOffset + ReplayFormat.TRAILER - 4;
+            int count = in.getInt(index);
+            index += 4;
+            if (count < 0 || (long) count * ReplayFormat.INDEX_ENTRY
+                    != size - ReplayFormat.FOOTER - index) {
+                throw new IOException("Malformed keyframes index");
+            }
+            keyframeTicks = new long[count];
+            keyframeOffsets = new int[count];
+            for (int i = 0; i < count; i++) {
+                keyframeTicks[i] = in.getLong(index);
+                keyframeOffsets[i] = (int) in.getLong(index + 8);
+                index += ReplayFormat.INDEX_ENTRY;
+            }
+            return;
+        }
+        scanKeyframes();
+    }
+
+    /**
+     * Finds the keyframes by going over the records of the file, up to
+     * where it was cut.
+     *
+     * @throws IOException a malformed file
+     */
+    private void scanKeyframes() throws IOException {
+        ByteBuffer scan = in.duplicate();
+        scan.position(dataStart);
+        long[] ticks = new long[INIT_KEYFRAMES];
+        int[] offsets = new int[INIT_KEYFRAMES];
+        int count = 0;
+        try {
+            while (scan.hasRemaining()) {
+                int offset = scan.position();
+                int tag = scan.get() & 0xFF;
+                if (tag == ReplayFormat.END) {
+                    break;
+                }
+                if (tag != ReplayFormat.SNAPSHOT) {
+                    ReplayFormat.readVarLong(scan);
+                    continue;
+                }
+                long tick = ReplayFormat.readVarLong(scan);
+                long length = ReplayFormat.readVarLong(scan);
+                if (length > scan.remaining()) {
+                    break; // the keyframe was cut
+                }
+                scan.position(scan.position() + (int) length);
+                if (count == ticks.length) {
+                    ticks = Arrays.copyOf(ticks, count * 2);
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                }
+                ticks[count] = tick;
+                offsets[count] = offset;
+                count++;
+            }
+        } catch (BufferUnderflowException e) {
+            // the file was cut in the middle of a record
+        }
+        keyframeTicks = Arrays.copyOf(ticks, count);
+        keyframeOffsets = Arrays.copyOf(offsets, count);
+    }
+
+    /**
+     * Reads the next run of ticks, skipping the keyframes.
+     *
+     * @return false if there are no more ticks
+     * @throws IOException a malformed file
+     */
+    private boolean readRun() throws IOException {
+        if (ended) {
+            return false;
+        }
+        try {
+            int tag = in.get() & 0xFF;
+            while (tag == ReplayFormat.SNAPSHOT) {
+                ReplayFormat.readVarLong(in); // the keyframe's tick
+                long length = ReplayFormat.readVarLong(in);
+                if (length > in.remaining()) {
+                    ended = true; // the file was cut in the keyframe
+                    return false;
+                }
+                in.position(in.position() + (int) length);
+                tag = in.get() & 0xFF;
+            }
+            if (tag == ReplayFormat.END) {
+                recordedFrames = in.getLong();
+                recordedHash = in.getLong();
+                ended = true;
+                if (recordedFrames != frames) {
+                    throw new IOException("Replay has " + frames
+                            + " ticks, its end says " + recordedFrames);
+                }
+                complete = true;
+                return false;
+            }
+            if (tag > ReplayFormat.KEYS_MASK) {
+                throw new IOException("Unknown replay record " + tag);
+            }
+            long length = ReplayFormat.readVarLong(in);
+            if (length <= 0) {
+                throw new IOException("Empty run in replay");
+            }
+            runKeys = tag;
+            runLeft = length;
+            return true;
+        } catch (BufferUnderflowException e) {
+            ended = true; // the file was cut short
+            return false;
+        }
+    }
+}
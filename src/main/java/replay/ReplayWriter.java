@@ -0,0 +1,283 @@
+package replay;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Writes a replay file while the game runs. The keys of every tick are run
+ * length encoded into a chunk of memory, and full chunks are written to the
+ * file by a thread of its own, so the game never waits for the disk. A chunk
+ * is also handed over every few seconds of ticks, so a game that is killed
+ * loses only its last seconds. Keyframes - snapshots of the game's state -
+ * are written between the ticks, and indexed at the end of the file.
+ */
+public class ReplayWriter implements Runnable {
+    private static final int CHUNK_SIZE = 4096;
+    private static final int SPARE_CHUNKS = 4;
+    private static final int FLUSH_SECONDS = 5;
+    private static final int INIT_KEYFRAMES = 64;
+    private OutputStream out;
+    private BlockingQueue<Chunk> filled = new LinkedBlockingQueue<Chunk>();
+    private BlockingQueue<Chunk> free
+            = new ArrayBlockingQueue<Chunk>(SPARE_CHUNKS);
+    private Thread thread;
+    private volatile IOException failure = null;
+    private Chunk chunk = new Chunk();
+    private int runKeys = -1;
+    private long runLength = 0;
+    private long frames = 0;
+    private int framesPerSec;
+    private long flushFrames;
+    private long nextFlush;
+    private long handedBytes; // file offset of the current chunk
+    private long[] keyframeTicks = new long[INIT_KEYFRAMES];
+    private long[] keyframeOffsets = new long[INIT_KEYFRAMES];
+    private int keyframes = 0;
+
+    /**
+     * A piece of the file on its way to the disk.
+     */
+    private static final class Chunk {
+        private byte[] data = new byte[CHUNK_SIZE];
+        private int size = 0;
+        private boolean last = false;
+    }
+
+    /**
+     * Creates the file, writes the header and starts the writing thread.
+     *
+     * @param file   the replay file
+     * @param header the game's setup
+     * @throws IOException problem creating the file
+     */
+    public ReplayWriter(File file, ReplayHeader header) throws IOException {
+        out = new BufferedOutputStream(new FileOutputStream(file),
+                CHUNK_SIZE);
+        DataOutputStream data = new DataOutputStream(out);
+        try {
+            header.write(data);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+        handedBytes = data.size();
+        framesPerSec = header.getFramesPerSec();
+        flushFrames = (long) framesPerSec * FLUSH_SECONDS;
+        nextFlush = flushFrames;
+        thread = new Thread(this, "replay-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Records the keys of one tick.
+     *
+     * @param keys the bits of the pressed keys
+     */
+    public void addFrame(int keys) {
+        if (keys != runKeys) {
+            endRun();
+            runKeys = keys;
+        }
+        runLength++;
+        frames++;
+        if (frames >= nextFlush) {
+            endRun();
+            handOver(false);
+        }
+    }
+
+    /**
+     * Returns the number of ticks recorded so far.
+     *
+     * @return ticks count
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Returns the simulated frames (ticks) per second of the recorded game.
+     *
+     * @return frames per second
+     */
+    public int getFramesPerSec() {
+        return framesPerSec;
+    }
+
+    /**
+     * Records a keyframe after the ticks recorded so far.
+     *
+     * @param state the game's state, from its position to its limit
+     */
+    public void addSnapshot(ByteBuffer state) {
+        endRun();
+        ensureRoom(1 + 2 * ReplayFormat.MAX_VAR_LONG);
+        if (keyframes == keyframeTicks.length) {
+            keyframeTicks = grow(keyframeTicks);
+            keyframeOffsets = grow(keyframeOffsets);
+        }
+        keyframeTicks[keyframes] = frames;
+        keyframeOffsets[keyframes] = handedBytes + chunk.size;
+        keyframes++;
+        chunk.data[chunk.size++] = (byte) ReplayFormat.SNAPSHOT;
+        chunk.size = ReplayFormat.putVarLong(chunk.data, chunk.size, frames);
+        chunk.size = ReplayFormat.putVarLong(chunk.data, chunk.size,
+                state.remaining());
+
+        // The state may fill several chunks
+        while (state.hasRemaining()) {
+            if (chunk.size == CHUNK_SIZE) {
+                handOver(false);
+            }
+            int bytes = Math.min(state.remaining(), CHUNK_SIZE - chunk.size);
+            state.get(chunk.data, chunk.size, bytes);
+            chunk.size += bytes;
+        }
+    }
+
+    /**
+     * Ends the file with the final state hash and the keyframes index, and
+     * waits until all of it is written.
+     *
+     * @param stateHash the game's final state hash
+     * @throws IOException problem writing the file
+     */
+    public void close(long stateHash) throws IOException {
+        if (chunk == null) {
+            return; // already closed
+        }
+        endRun();
+        ensureRoom(ReplayFormat.TRAILER);
+        long endOffset = handedBytes + chunk.size;
+        chunk.data[chunk.size++] = (byte) ReplayFormat.END;
+        chunk.size = ReplayFormat.putLong(chunk.data, chunk.size, frames);
+        chunk.size = ReplayFormat.putLong(chunk.data, chunk.size, stateHash);
+        chunk.size = ReplayFormat.putInt(chunk.data, chunk.size, keyframes);
+        for (int i = 0; i < keyframes; i++) {
+            ensureRoom(ReplayFormat.INDEX_ENTRY);
+            chunk.size = ReplayFormat.putLong(chunk.data, chunk.size,
+                    keyframeTicks[i]);
+            chunk.size = ReplayFormat.putLong(chunk.data, chunk.size,
+                    keyframeOffsets[i]);
+        }
+        ensureRoom(ReplayFormat.FOOTER);
+        chunk.size = ReplayFormat.putLong(chunk.data, chunk.size, endOffset);
+        chunk.size = ReplayFormat.putInt(chunk.data, chunk.size,
+                ReplayFormat.MAGIC);
+        handOver(true);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Replay not fully written");
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Writes the handed chunks until the last one.
+     */
+    @Override
+    public void run() {
+        try {
+            Chunk done;
+            do {
+                done = filled.take();
+                if (failure == null) {
+                    try {
+                        out.write(done.data, 0, done.size);
+                        out.flush();
+                    } catch (IOException e) {
+                        failure = e; // reported when the file is closed
+                    }
+                }
+                done.size = 0;
+                free.offer(done);
+            } while (!done.last);
+        } catch (InterruptedException e) {
+            failure = new InterruptedIOException("Replay writer stopped");
+        } finally {
+            try {
+                out.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the current run of ticks to the chunk.
+     */
+    private void endRun() {
+        if (runLength == 0) {
+            return;
+        }
+        ensureRoom(1 + ReplayFormat.MAX_VAR_LONG);
+        chunk.data[chunk.size++] = (byte) runKeys;
+        chunk.size = ReplayFormat.putVarLong(chunk.data, chunk.size,
+                runLength);
+        runLength = 0;
+    }
+
+    /**
+     * Hands the chunk over if it has no room for a record.
+     *
+     * @param bytes size of the record
+     */
+    private void ensureRoom(int bytes) {
+        if (chunk.size + bytes > CHUNK_SIZE) {
+            handOver(false);
+        }
+    }
+
+    /**
+     * Hands the chunk to the writing thread and takes an empty one. A new
+     * chunk is made if the thread has not given any back yet, so the game
+     * does not wait for it.
+     *
+     * @param last true if nothing is written after the chunk
+     */
+    private void handOver(boolean last) {
+        nextFlush = frames + flushFrames;
+        if (chunk.size == 0 && !last) {
+            return;
+        }
+        chunk.last = last;
+        handedBytes += chunk.size;
+        filled.add(chunk);
+        if (last) {
+            chunk = null;
+            return;
+        }
+        chunk = free.poll();
+        if (chunk == null) {
+            chunk = new Chunk();
+        }
+    }
+
+    /**
+     * Doubles the size of an array.
+     *
+     * @param array the array
+     * @return a bigger copy of the array
+     */
+    private static long[] grow(long[] array) {
+        long[] grown = new long[array.length * 2];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+}
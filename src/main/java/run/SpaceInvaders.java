@@ -5,8 +5,12 @@ import animation.MenuAnimation;
 import animation.KeyPressStoppableAnimation;
 import animation.HighScoresAnimation;
 import biuoop.KeyboardSensor;
+import gameplay.Battle;
 import gameplay.GameFlow;
 import menu.Task;
+import replay.RecordingKeyboardSensor;
+import replay.ReplayHeader;
+import replay.ReplayWriter;
 import scores.HighScoresTable;
 import utils.Consts;
 
@@ -17,9 +21,11 @@ import java.io.IOException;
  * Class runs the space invaders game.
  */
 public class SpaceInvaders {
+    private static final int KEYFRAME_SECONDS = 10;
     private Consts consts = Consts.getInstance();
     private AnimationRunner runner;
     private KeyboardSensor sensor;
+    private File replayDir = null;
 
     /**
      * Creates the arkanoid game session.
@@ -32,6 +38,17 @@ public class SpaceInvaders {
         this.sensor = sensor;
     }
 
+    /**
+     * Sets a directory to record a replay of every game into. A replay is
+     * named after the seed of its game, and has a keyframe every ten
+     * seconds.
+     *
+     * @param dir the directory, or null not to record
+     */
+    public void setReplayDir(File dir) {
+        replayDir = dir;
+    }
+
     /**
      * Runs the game menu.
      *
@@ -69,7 +86,9 @@ public class SpaceInvaders {
 
         // Add menu options
         menu.addSelection("s", "Press \"s\" to start a new game.",
-                playOption());
+                playOption(false));
+        menu.addSelection("b", "Press \"b\" to start a bullet hell game.",
+                playOption(true));
         menu.addSelection("h", "Press \"h\" to see the high scores.",
                 scoresOption());
         menu.addSelection("q", "Press \"q\" to quit.", quitOption());
@@ -80,22 +99,61 @@ public class SpaceInvaders {
     /**
      * Returns the game play task that starts the game.
      *
+     * @param bulletHell whether to play a bullet hell game
      * @return game task
      * @throws IOException problem with file
      */
-    private Task<Void> playOption() throws IOException {
+    private Task<Void> playOption(final boolean bulletHell)
+            throws IOException {
         return new Task<Void>() {
-            private GameFlow gameFlow = new GameFlow(runner, sensor,
-                    Consts.getInstance().getLives());
-
             @Override
             public Void run() throws IOException {
-                gameFlow.runLevels();
+                playGame(bulletHell);
                 return null;
             }
         };
     }
 
+    /**
+     * Plays a game, recording it if there is a replays directory.
+     *
+     * @param bulletHell whether to play a bullet hell game
+     * @throws IOException problem with file
+     */
+    private void playGame(boolean bulletHell) throws IOException {
+        int lives = consts.getLives();
+        long seed = System.nanoTime();
+        RecordingKeyboardSensor recorder = null;
+        KeyboardSensor keyboard = sensor;
+        if (replayDir != null) {
+            replayDir.mkdirs();
+            ReplayHeader header = new ReplayHeader(seed,
+                    consts.getFramesPerSec(), lives, bulletHell,
+                    Battle.DEFAULT_COLS, Battle.DEFAULT_ROWS);
+            File file = new File(replayDir,
+                    "game-" + Long.toHexString(seed) + ".replay");
+            recorder = new RecordingKeyboardSensor(sensor,
+                    new ReplayWriter(file, header));
+            keyboard = recorder;
+            runner.setInputLatch(recorder);
+        }
+
+        GameFlow gameFlow = new GameFlow(runner, keyboard, lives);
+        gameFlow.setSeed(seed);
+        gameFlow.setBulletHell(bulletHell);
+        if (recorder != null) {
+            recorder.recordKeyframes(gameFlow, KEYFRAME_SECONDS);
+        }
+        try {
+            gameFlow.runLevels();
+        } finally {
+            if (recorder != null) {
+                runner.setInputLatch(null);
+                recorder.close(gameFlow.getStateHash().getValue());
+            }
+        }
+    }
+
     /**
      * Creates the quit task.
      *
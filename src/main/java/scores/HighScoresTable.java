@@ -1,5 +1,7 @@
 package scores;
 
+import diagnostics.HighScoreSaveEvent;
+
 import java.io.Serializable;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -132,6 +134,8 @@ public class HighScoresTable implements Serializable {
      */
     public void save(File file) throws IOException {
         ObjectOutputStream stream = null;
+        HighScoreSaveEvent event = new HighScoreSaveEvent();
+        event.begin();
 
         // Try to save object into the file
         try {
@@ -142,6 +146,7 @@ public class HighScoresTable implements Serializable {
             if (stream != null) {
                 stream.close();
             }
+            event.finish(file.getPath(), scores.size());
         }
     }
 }
\ No newline at end of file
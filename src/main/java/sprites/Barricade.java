@@ -2,21 +2,43 @@ package sprites;
 
 import animation.GameLevel;
 import biuoop.DrawSurface;
+import graphics.GridTraversal;
+import graphics.Line;
 import graphics.Rectangle;
+import graphics.SegmentHit;
+import listeners.BarricadeHitListener;
 import listeners.BlockRemover;
-import sprites.collidables.Block;
+import listeners.HitListener;
+import listeners.HitListeners;
+import listeners.HitNotifier;
+import sprites.bullet.Bullet;
+import sprites.collidables.CompoundCollidable;
 import utils.Consts;
+import utils.StateBuffer;
+import utils.StateHash;
 
 import java.awt.Color;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 
 /**
- * Represents a barricade of blocks below the ship.
+ * Represents a barricade of blocks below the ship. The blocks are kept as a
+ * bitmap - one bit per block, set while the block is still standing.
  */
-public class Barricade extends Rectangle implements Sprite {
-    private LinkedList<Block> blocks = new LinkedList<Block>();
+public class Barricade extends Rectangle
+        implements Sprite, CompoundCollidable, HitNotifier {
     private static final int HEIGHT = 15;
     public static final int WIDTH = 150;
+    private static final int BLOCK_SIZE = 5;
+    private static final int COLS = WIDTH / BLOCK_SIZE;
+    private static final int ROWS = HEIGHT / BLOCK_SIZE;
+    private BitSet blocks = new BitSet(COLS * ROWS);
+    private Color color;
+    private HitListeners hitListeners = new HitListeners();
+    private List<BarricadeHitListener> blockListeners =
+            new ArrayList<BarricadeHitListener>();
+    private GridTraversal walk = new GridTraversal();
 
     /**
      * Create a new barricade with location and width/height.
@@ -27,26 +49,8 @@ public class Barricade extends Rectangle implements Sprite {
     public Barricade(int xPos, Color color) {
         super(xPos, Consts.getInstance().getBarricadesPosition(),
                 WIDTH, HEIGHT);
-        createBlocks(color);
-    }
-
-    /**
-     * Creates the blocks for the barricade.
-     *
-     * @param color color of the barricade blocks
-     */
-    private void createBlocks(Color color) {
-        int top = getTop();
-        int bottom = getBottom();
-        int right = getRight();
-        int left = getLeft();
-
-        // Fill all the barricade width blocks
-        for (int row = top; row < bottom; row += Block.getSize()) {
-            for (int col = left; col < right; col += Block.getSize()) {
-                blocks.add(new Block(col, row, color));
-            }
-        }
+        this.color = color;
+        blocks.set(0, COLS * ROWS); // all the blocks are standing
     }
 
     /**
@@ -56,8 +60,22 @@ public class Barricade extends Rectangle implements Sprite {
      */
     @Override
     public void drawOn(DrawSurface d) {
-        for (Block block : blocks) {
-            block.drawOn(d);
+        d.setColor(color);
+        int left = getLeft();
+        int top = getTop();
+
+        // Draw every run of standing blocks in a row as one rectangle
+        for (int row = 0; row < ROWS; row++) {
+            int rowStart = row * COLS;
+            int rowEnd = rowStart + COLS;
+            int runStart = blocks.nextSetBit(rowStart);
+            while (runStart >= 0 && runStart < rowEnd) {
+                int runEnd = Math.min(blocks.nextClearBit(runStart), rowEnd);
+                d.fillRectangle(left + (runStart - rowStart) * BLOCK_SIZE,
+                        top + row * BLOCK_SIZE,
+                        (runEnd - runStart) * BLOCK_SIZE, BLOCK_SIZE);
+                runStart = blocks.nextSetBit(runEnd);
+            }
         }
     }
 
@@ -79,21 +97,199 @@ public class Barricade extends Rectangle implements Sprite {
     @Override
     public void addToGame(GameLevel g) {
         g.addSprite(this);
+        g.addPlayerCollidable(this);
+        g.addEnemyCollidable(this);
+        addBlockHitListener(new BlockRemover(g));
+    }
+
+    /**
+     * Return the "collision shape" of the object.
+     *
+     * @return collision shape
+     */
+    @Override
+    public Rectangle getCollisionRectangle() {
+        return this;
+    }
+
+    /**
+     * Finds the first standing block on the trajectory, walking over the
+     * blocks it passes in order.
+     *
+     * @param startX x coordinate of the trajectory start
+     * @param startY y coordinate of the trajectory start
+     * @param endX   x coordinate of the trajectory end
+     * @param endY   y coordinate of the trajectory end
+     * @param hit    receives the hit parameter, side and block index
+     * @return true if a block is hit
+     */
+    @Override
+    public boolean resolveHit(double startX, double startY, double endX,
+                              double endY, SegmentHit hit) {
+        int left = getLeft();
+        int top = getTop();
+
+        // Quick reject if the trajectory is nowhere near the barricade
+        if (blocks.isEmpty()
+                || Math.max(startX, endX) < left
+                || Math.min(startX, endX) > getRight()
+                || Math.max(startY, endY) < top
+                || Math.min(startY, endY) > getBottom()) {
+            return false;
+        }
+
+        // A trajectory running along a border touches the blocks on both sides
+        int colsBack = 0;
+        int rowsBack = 0;
+        if (startX == endX && (startX - left) % BLOCK_SIZE == 0) {
+            colsBack = 1;
+        }
+        if (startY == endY && (startY - top) % BLOCK_SIZE == 0) {
+            rowsBack = 1;
+        }
 
-        // Go over the blocks, add them to game and register a remover listener
-        BlockRemover remover = new BlockRemover(g, this);
-        for (Block block : blocks) {
-            block.addHitListener(remover);
-            block.addToGame(g);
+        walk.start(startX, startY, endX, endY, left, top,
+                BLOCK_SIZE, BLOCK_SIZE);
+        do {
+            int minRow = Math.max(0, walk.row() - rowsBack);
+            int maxRow = Math.min(ROWS - 1, walk.row());
+            int minCol = Math.max(0, walk.col() - colsBack);
+            int maxCol = Math.min(COLS - 1, walk.col());
+            double minT = -1;
+            int hitPart = -1;
+            SegmentHit.Side hitSide = null;
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    if (!blocks.get(row * COLS + col)) {
+                        continue; // already broken
+                    }
+
+                    // Get the exact hit with this block
+                    int blockLeft = left + col * BLOCK_SIZE;
+                    int blockTop = top + row * BLOCK_SIZE;
+                    if (Line.intersectRectangle(startX, startY, endX, endY,
+                            blockLeft, blockTop, blockLeft + BLOCK_SIZE,
+                            blockTop + BLOCK_SIZE, hit)
+                            && (minT == -1 || hit.getT() < minT)) {
+                        minT = hit.getT();
+                        hitSide = hit.getSide();
+                        hitPart = row * COLS + col;
+                    }
+                }
+            }
+            if (hitPart != -1) {
+                hit.set(minT, hitSide);
+                hit.setPart(hitPart);
+                return true;
+            }
+        } while (walk.next());
+        return false;
+    }
+
+    /**
+     * Notifies the barricade that one of its blocks was hit.
+     *
+     * @param part   index of the hit block
+     * @param hitter the bullet that hit
+     */
+    @Override
+    public void notifyHit(int part, Bullet hitter) {
+        for (int i = 0; i < blockListeners.size(); i++) {
+            blockListeners.get(i).blockHit(this, part, hitter);
         }
+        notifyHit(hitter);
     }
 
     /**
-     * Remove the block from barricade.
+     * Adds listener to hits on the blocks.
      *
-     * @param hitBlock block to be removed
+     * @param bl the listener to add
      */
-    public void removeBlock(Block hitBlock) {
-        blocks.remove(hitBlock);
+    public void addBlockHitListener(BarricadeHitListener bl) {
+        blockListeners.add(bl);
+    }
+
+    /**
+     * Removes the listener to hits on the blocks.
+     *
+     * @param bl the listener to be removed
+     */
+    public void removeBlockHitListener(BarricadeHitListener bl) {
+        blockListeners.remove(bl);
+    }
+
+    /**
+     * Adds listener to hit events.
+     *
+     * @param hl the listener to add
+     */
+    @Override
+    public void addHitListener(HitListener hl) {
+        hitListeners.add(hl);
+    }
+
+    /**
+     * Removes the listener from list.
+     *
+     * @param hl the listener to be removed
+     */
+    @Override
+    public void removeHitListener(HitListener hl) {
+        hitListeners.remove(hl);
+    }
+
+    /**
+     * Notifies the listeners of hit.
+     *
+     * @param bullet the hitter
+     */
+    @Override
+    public void notifyHit(Bullet bullet) {
+        // Notify all listeners about a hit event:
+        hitListeners.notifyHit(this, bullet);
+    }
+
+    /**
+     * Removes a block from the barricade.
+     *
+     * @param block index of the block
+     */
+    public void removeBlock(int block) {
+        blocks.clear(block);
+    }
+
+    /**
+     * Adds the standing blocks to a state hash.
+     *
+     * @param hash the hash
+     */
+    public void hashState(StateHash hash) {
+        hash.add(blocks.hashCode()); // specified by the bits, allocates nothing
+    }
+
+    /**
+     * Saves the standing blocks into a snapshot.
+     *
+     * @param state the snapshot
+     */
+    public void saveState(StateBuffer state) {
+        long[] words = blocks.toLongArray();
+        state.putInt(words.length);
+        for (long word : words) {
+            state.putLong(word);
+        }
+    }
+
+    /**
+     * Restores the standing blocks from a snapshot.
+     *
+     * @param state the snapshot
+     */
+    public void restoreState(StateBuffer state) {
+        long[] words = new long[state.getInt()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = state.getLong();
+        }
+        blocks = BitSet.valueOf(words);
     }
 }
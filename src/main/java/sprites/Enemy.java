@@ -2,20 +2,30 @@ package sprites;
 
 import animation.GameLevel;
 import biuoop.DrawSurface;
+import graphics.GridTraversal;
+import graphics.Line;
 import graphics.Rectangle;
+import graphics.SegmentHit;
 import listeners.AlienRemover;
 import listeners.ScoreTrackingListener;
+import sprites.bullet.Bullet;
 import sprites.collidables.Alien;
+import sprites.collidables.CompoundCollidable;
 import sprites.collidables.Ship;
 import utils.Consts;
+import utils.StateBuffer;
+import utils.StateHash;
 
 import java.util.List;
-import java.util.LinkedList;
 
 /**
- * Aliens formation - represents the block of aliens moving together.
+ * Aliens formation - represents the block of aliens moving together. The
+ * aliens stand on a regular lattice of rows and columns, so the aliens a
+ * bullet may hit are found from its position instead of checking them all.
+ * The aliens' positions are relative to the formation origin, so moving the
+ * formation only moves the origin.
  */
-public class Enemy implements Sprite {
+public class Enemy implements Sprite, CompoundCollidable {
     private int mostLeft;
     private int mostRight;
     private int bottom;
@@ -23,10 +33,31 @@ public class Enemy implements Sprite {
     private int direction = 1; // 1 for right, -1 for left
     private int initSpeed;
     private int currSpeed;
-    private List<Alien> aliens;
-    private List<Alien> shooters = new LinkedList<Alien>();
-    private long lastFireTime = 1;
+    private double stepRemainder = 0; // the fraction of a pixel not moved
+    private long lastFireTime = -1;
     private GameLevel game;
+    private Alien[] lattice;
+    private int cols;
+    private int rows;
+    private int colPitch;
+    private int rowPitch;
+    private int alienWidth;
+    private int alienHeight;
+    private int originX;
+    private int originY;
+    private int aliensLeft;
+    private int[] colAliens;
+    private int[] rowAliens;
+    private int[] colBottomRow;
+    private int[] shooterCols;
+    private int[] shooterSlot;
+    private int shootersCount;
+    private int minCol;
+    private int maxCol;
+    private int minRow;
+    private int maxRow;
+    private Rectangle bounds = new Rectangle(0, 0, 0, 0);
+    private GridTraversal walk = new GridTraversal();
 
     /**
      * Creates an alien formation.
@@ -39,92 +70,214 @@ public class Enemy implements Sprite {
         initSpeed = speed;
         currSpeed = initSpeed;
         this.game = game;
-        this.aliens = aliens;
-        resetEnemyProperties();
+        buildLattice(aliens);
+        countAliens();
+        updateLimits();
     }
 
     /**
-     * Goes over the aliens and sets the enemy properties.
+     * Places the aliens in the lattice cells by their positions. The
+     * distance between neighbour rows and columns is taken from the aliens.
+     *
+     * @param aliens collection of aliens
      */
-    private void resetEnemyProperties() {
-        // Initialize all the properties
-        mostLeft = Consts.getInstance().getGameWidth();
-        mostRight = 0;
-        bottom = 0;
-        top = Consts.getInstance().getGameHeight();
-        shooters.clear();
-
-        // Go over the aliens left in list and set the properties
+    private void buildLattice(List<Alien> aliens) {
+        // Find the lattice origin - the most upper left position
+        originX = Integer.MAX_VALUE;
+        originY = Integer.MAX_VALUE;
+        for (Alien alien : aliens) {
+            originX = Math.min(originX, alien.getLeft());
+            originY = Math.min(originY, alien.getTop());
+        }
+
+        // Find the distance between rows and between columns
+        colPitch = Integer.MAX_VALUE;
+        rowPitch = Integer.MAX_VALUE;
+        int maxCol = 0;
+        int maxRow = 0;
+        for (Alien alien : aliens) {
+            int dx = alien.getLeft() - originX;
+            int dy = alien.getTop() - originY;
+            if (dx > 0) {
+                colPitch = Math.min(colPitch, dx);
+            }
+            if (dy > 0) {
+                rowPitch = Math.min(rowPitch, dy);
+            }
+        }
+        if (colPitch == Integer.MAX_VALUE) { // single column
+            colPitch = (int) Math.ceil(aliens.get(0).getWidth());
+        }
+        if (rowPitch == Integer.MAX_VALUE) { // single row
+            rowPitch = (int) Math.ceil(aliens.get(0).getHeight());
+        }
+
+        // Put every alien in its cell
         for (Alien alien : aliens) {
-            enlargeEnemyLimitsIfNeeded(alien);
-            addNewShooterIfNeeded(alien);
+            maxCol = Math.max(maxCol, (alien.getLeft() - originX) / colPitch);
+            maxRow = Math.max(maxRow, (alien.getTop() - originY) / rowPitch);
+            alienWidth = Math.max(alienWidth,
+                    alien.getRight() - alien.getLeft());
+            alienHeight = Math.max(alienHeight,
+                    alien.getBottom() - alien.getTop());
+        }
+        cols = maxCol + 1;
+        rows = maxRow + 1;
+        lattice = new Alien[cols * rows];
+        for (Alien alien : aliens) {
+            int dx = alien.getLeft() - originX;
+            int dy = alien.getTop() - originY;
+            if (dx % colPitch != 0 || dy % rowPitch != 0) {
+                throw new IllegalArgumentException(
+                        "Aliens are not placed on a regular lattice");
+            }
+            alien.placeInFormation(originX, originY);
+            lattice[latticeIndex(alien)] = alien;
         }
     }
 
     /**
-     * Updates the shooters table if needed.
+     * Gets the index of the lattice cell an alien stands in.
      *
-     * @param newAlien the new alien to be added
+     * @param alien the alien
+     * @return the cell index
      */
-    private void addNewShooterIfNeeded(Alien newAlien) {
-        int newPos = newAlien.getLeft();
-        boolean foundPos = false;
-
-        // Go over the shooters and check if new alien is a new shooter
-        for (Alien shooter : shooters) {
-            int shooterPos = shooter.getLeft();
-            int newBottom = newAlien.getBottom();
-            int shooterBottom = shooter.getBottom();
-
-            // If the new alien is below the shooter - change shooter
-            if ((newPos == shooterPos) && (newBottom > shooterBottom)) {
-                shooters.remove(shooter);
-                shooters.add(newAlien);
-                foundPos = true;
-                break;
+    private int latticeIndex(Alien alien) {
+        int col = alien.getLeft() / colPitch;
+        int row = alien.getTop() / rowPitch;
+        return row * cols + col;
+    }
+
+    /**
+     * Counts the aliens in every row and column, and finds the shooters -
+     * the bottom alien of every column.
+     */
+    private void countAliens() {
+        aliensLeft = 0;
+        colAliens = new int[cols];
+        rowAliens = new int[rows];
+        colBottomRow = new int[cols];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (lattice[row * cols + col] != null) {
+                    aliensLeft++;
+                    colAliens[col]++;
+                    rowAliens[row]++;
+                    colBottomRow[col] = row;
+                }
+            }
+        }
+
+        // Every column with aliens has a shooter
+        shooterCols = new int[cols];
+        shooterSlot = new int[cols];
+        shootersCount = 0;
+        for (int col = 0; col < cols; col++) {
+            shooterSlot[col] = -1;
+            if (colAliens[col] > 0) {
+                shooterSlot[col] = shootersCount;
+                shooterCols[shootersCount++] = col;
             }
         }
 
-        // New position - add the shooter
-        if (!foundPos) {
-            shooters.add(newAlien);
+        // The rows and columns range that still has aliens
+        minCol = 0;
+        maxCol = cols - 1;
+        minRow = 0;
+        maxRow = rows - 1;
+        shrinkLimits();
+    }
+
+    /**
+     * Skips the outer rows and columns that have no aliens left.
+     */
+    private void shrinkLimits() {
+        if (aliensLeft == 0) {
+            return;
+        }
+        while (colAliens[minCol] == 0) {
+            minCol++;
+        }
+        while (colAliens[maxCol] == 0) {
+            maxCol--;
+        }
+        while (rowAliens[minRow] == 0) {
+            minRow++;
         }
+        while (rowAliens[maxRow] == 0) {
+            maxRow--;
+        }
+    }
+
+    /**
+     * Sets the formation limits from the rows and columns that have aliens.
+     */
+    private void updateLimits() {
+        mostLeft = originX + minCol * colPitch;
+        mostRight = originX + maxCol * colPitch + alienWidth;
+        top = originY + minRow * rowPitch;
+        bottom = originY + maxRow * rowPitch + alienHeight;
+        updateBounds();
+    }
+
+    /**
+     * Updates the collision rectangle to the formation limits.
+     */
+    private void updateBounds() {
+        bounds.getUpperLeft().setX(mostLeft);
+        bounds.getUpperLeft().setY(top);
+        bounds.setWidth(Math.max(0, mostRight - mostLeft));
+        bounds.setHeight(Math.max(0, bottom - top));
+        game.updatePlayerCollidable(this);
     }
 
     /**
-     * Removes the alien from the formation.
+     * Removes the alien from the formation. Only the alien's row and column
+     * are updated.
      *
      * @param deadAlien the dead alien to be removed
      */
     public void removeAlien(Alien deadAlien) {
-        aliens.remove(deadAlien);
-        resetEnemyProperties();
+        int index = latticeIndex(deadAlien);
+        if (index < 0 || index >= lattice.length
+                || lattice[index] != deadAlien) {
+            return; // not in the formation
+        }
+        lattice[index] = null;
+        int col = index % cols;
+        int row = index / cols;
+        aliensLeft--;
+        colAliens[col]--;
+        rowAliens[row]--;
+
+        // Find the column's new shooter, or drop the column if it's empty
+        if (colAliens[col] == 0) {
+            removeShooterCol(col);
+        } else if (colBottomRow[col] == row) {
+            int newBottom = row - 1;
+            while (lattice[newBottom * cols + col] == null) {
+                newBottom--;
+            }
+            colBottomRow[col] = newBottom;
+        }
+
+        shrinkLimits();
+        updateLimits();
     }
 
     /**
-     * Gets the new alien rectangle and check if it changes the formation.
+     * Removes an empty column from the shooter columns.
      *
-     * @param newAlien the rectangle of the new alien to get coordinates
+     * @param col the empty column
      */
-    private void enlargeEnemyLimitsIfNeeded(Rectangle newAlien) {
-        int newRight = newAlien.getRight();
-        int newLeft = newAlien.getLeft();
-        int newBottom = newAlien.getBottom();
-        int newTop = newAlien.getTop();
-
-        // Check if new coordinates influence the size of formation
-        if (newRight > mostRight) {
-            mostRight = newRight;
-        }
-        if (newLeft < mostLeft) {
-            mostLeft = newLeft;
-        }
-        if (newBottom > bottom) {
-            bottom = newBottom;
-        }
-        if (newTop < top) {
-            top = newTop;
-        }
+    private void removeShooterCol(int col) {
+        // Move the last shooter column into the free slot
+        int slot = shooterSlot[col];
+        int lastCol = shooterCols[shootersCount - 1];
+        shooterCols[slot] = lastCol;
+        shooterSlot[lastCol] = slot;
+        shooterSlot[col] = -1;
+        shootersCount--;
     }
 
     /**
@@ -134,9 +287,23 @@ public class Enemy implements Sprite {
      */
     public void moveOneStep(double moveTimeSec) {
         Consts f = Consts.getInstance();
-        int step = (int) (direction * currSpeed * moveTimeSec);
         int screenWidth = f.getGameWidth() - f.getMargin();
 
+        // Nowhere to move forward - move down and change direction
+        if ((direction > 0 && mostRight >= screenWidth)
+                || (direction < 0 && mostLeft <= f.getMargin())) {
+            stepRemainder = 0;
+            moveDown();
+            direction *= -1;
+            return;
+        }
+
+        // Move the whole pixels and keep the fraction for the next steps,
+        // so a step shorter than a pixel is not lost
+        double move = direction * currSpeed * moveTimeSec + stepRemainder;
+        int step = (int) move;
+        stepRemainder = move - step;
+
         // If wall collision expected - move right before the wall
         if ((mostRight + step) > screenWidth) {
             step = screenWidth - mostRight;
@@ -144,10 +311,7 @@ public class Enemy implements Sprite {
             step = f.getMargin() - mostLeft; // avoid going over left border
         }
 
-        if (step == 0) {
-            moveDown(); // nowhere to move forward. Move down
-            direction *= -1;    // change direction
-        } else {
+        if (step != 0) {
             moveRight(step); // move on (left or right)
         }
     }
@@ -158,14 +322,8 @@ public class Enemy implements Sprite {
      * @param stepRight pixels to move
      */
     private void moveRight(int stepRight) {
-        // Move all the aliens
-        for (Alien alien : aliens) {
-            alien.moveRight(stepRight);
-        }
-
-        // Move the formation
-        mostLeft += stepRight;
-        mostRight += stepRight;
+        originX += stepRight;
+        updateLimits();
     }
 
     /**
@@ -177,24 +335,35 @@ public class Enemy implements Sprite {
 
         // Check if the alien zone is not passed
         if (bottom + downStep <= alienZone) {
-            top += downStep;
-            bottom += downStep;
+            originY += downStep;
             currSpeed += currSpeed / 10;    // increase speed by 10%
-            for (Alien alien : aliens) {    // move all the aliens down
-                alien.moveDown(downStep);
-            }
+            updateLimits();
         } else { // passed the alien zone. Kill the ship
             Ship.getInstance().kill();
         }
     }
 
     /**
-     * Random column of aliens shoots a bullet.
+     * Random column of aliens shoots a bullet. In a bullet hell all the
+     * columns shoot.
      */
     private void fire() {
-        // Randomly choose position to shoot
-        int chosenPos = (int) (Math.random() * shooters.size());
-        shooters.get(chosenPos).shoot(game);
+        if (shootersCount == 0) {
+            return; // no aliens left
+        }
+        if (game.isBulletHell()) {
+            for (int i = 0; i < shootersCount; i++) {
+                int col = shooterCols[i];
+                lattice[colBottomRow[col] * cols + col]
+                        .shoot(game, originX, originY);
+            }
+            return;
+        }
+
+        // Randomly choose a column to shoot from its bottom alien
+        int col = shooterCols[game.getRandom().nextInt(shootersCount)];
+        Alien shooter = lattice[colBottomRow[col] * cols + col];
+        shooter.shoot(game, originX, originY);
     }
 
     /**
@@ -204,8 +373,10 @@ public class Enemy implements Sprite {
      */
     @Override
     public void drawOn(DrawSurface d) {
-        for (Alien alien : aliens) {
-            alien.drawOn(d);
+        for (Alien alien : lattice) {
+            if (alien != null) {
+                alien.drawOn(d, originX, originY);
+            }
         }
     }
 
@@ -219,9 +390,13 @@ public class Enemy implements Sprite {
         moveOneStep(dt);
 
         // Fire if possible
-        int fireFrequency = Consts.getInstance().getEnemyFireFrequency();
-        long currTime = System.currentTimeMillis();
-        if (currTime >= lastFireTime + fireFrequency) {
+        Consts consts = Consts.getInstance();
+        int fireFrequency = game.isBulletHell()
+                ? consts.getBulletHellFireFrequency()
+                : consts.getEnemyFireFrequency();
+        long currTime = game.getClock().getMillis();
+        if ((lastFireTime == -1)
+                || (currTime >= lastFireTime + fireFrequency)) {
             fire();
             lastFireTime = currTime;
         }
@@ -235,17 +410,91 @@ public class Enemy implements Sprite {
     @Override
     public void addToGame(GameLevel gameLevel) {
         gameLevel.addSprite(this);
+        gameLevel.addPlayerCollidable(this);
 
         // Go over the aliens, add them to game and add the listeners to them
         AlienRemover alienRemover = gameLevel.getAlienRemover();
         ScoreTrackingListener scoreListener = gameLevel.getScoreListener();
-        for (Alien alien : aliens) {
-            // Add hit listeners to the block
-            alien.addHitListener(alienRemover);
-            alien.addHitListener(scoreListener);
+        for (Alien alien : lattice) {
+            if (alien != null) {
+                // Add hit listeners to the block
+                alien.addHitListener(alienRemover);
+                alien.addHitListener(scoreListener);
+            }
+        }
+    }
+
+    /**
+     * Returns the collision rectangle - the formation limits.
+     *
+     * @return the collision rectangle.
+     */
+    @Override
+    public Rectangle getCollisionRectangle() {
+        return bounds;
+    }
+
+    /**
+     * Finds the first alien the trajectory hits. Only the lattice cells the
+     * trajectory passes are checked.
+     *
+     * @param startX x coordinate of the trajectory start
+     * @param startY y coordinate of the trajectory start
+     * @param endX   x coordinate of the trajectory end
+     * @param endY   y coordinate of the trajectory end
+     * @param hit    receives the hit parameter, side and alien's cell
+     * @return true if an alien is hit
+     */
+    @Override
+    public boolean resolveHit(double startX, double startY, double endX,
+                              double endY, SegmentHit hit) {
+        // Quick reject if the trajectory is nowhere near the formation
+        if (aliensLeft == 0
+                || Math.max(startX, endX) < mostLeft
+                || Math.min(startX, endX) > mostRight
+                || Math.max(startY, endY) < top
+                || Math.min(startY, endY) > bottom) {
+            return false;
+        }
+
+        // Check in the formation's coordinates
+        double localStartX = startX - originX;
+        double localStartY = startY - originY;
+        double localEndX = endX - originX;
+        double localEndY = endY - originY;
+        walk.start(localStartX, localStartY, localEndX, localEndY, 0, 0,
+                colPitch, rowPitch);
+        do {
+            int col = walk.col();
+            int row = walk.row();
+            if (col < 0 || col >= cols || row < 0 || row >= rows) {
+                continue; // outside the lattice
+            }
 
-            // Add the alien to game
-            alien.addToGame(gameLevel);
+            // Check the hit with the alien in this cell
+            Alien alien = lattice[row * cols + col];
+            if (alien != null && Line.intersectRectangle(localStartX,
+                    localStartY, localEndX, localEndY, alien.getLeft(),
+                    alien.getTop(), alien.getRight(), alien.getBottom(),
+                    hit)) {
+                hit.setPart(row * cols + col);
+                return true;
+            }
+        } while (walk.next());
+        return false;
+    }
+
+    /**
+     * Notifies the alien in the hit lattice cell that it was hit.
+     *
+     * @param part   the hit lattice cell
+     * @param hitter the bullet that hit
+     */
+    @Override
+    public void notifyHit(int part, Bullet hitter) {
+        Alien alien = lattice[part];
+        if (alien != null) {
+            alien.notifyHit(hitter);
         }
     }
 
@@ -258,15 +507,11 @@ public class Enemy implements Sprite {
     private void moveToPos(int x, int y) {
         int stepRight = x - mostLeft;
         int stepDown = y - top;
-        for (Alien alien : aliens) {
-            alien.move(stepRight, stepDown);
-        }
 
         // Move the coordinates
-        top += stepDown;
-        bottom += stepDown;
-        mostLeft += stepRight;
-        mostRight += stepRight;
+        originX += stepRight;
+        originY += stepDown;
+        updateLimits();
     }
 
     /**
@@ -278,5 +523,90 @@ public class Enemy implements Sprite {
     public void reset(int startX, int startY) {
         moveToPos(startX, startY);
         currSpeed = initSpeed;
+        stepRemainder = 0;
+    }
+
+    /**
+     * Adds the formation's state to a state hash.
+     *
+     * @param hash the hash
+     */
+    public void hashState(StateHash hash) {
+        hash.add(originX);
+        hash.add(originY);
+        hash.add(direction);
+        hash.add(currSpeed);
+        hash.add(stepRemainder);
+        hash.add(lastFireTime);
+        hash.add(aliensLeft);
+    }
+
+    /**
+     * Saves the formation's state into a snapshot: its place and speed, the
+     * aliens still alive, and the order the shooter columns are drawn from.
+     *
+     * @param state the snapshot
+     */
+    public void saveState(StateBuffer state) {
+        state.putInt(originX);
+        state.putInt(originY);
+        state.putInt(direction);
+        state.putInt(currSpeed);
+        state.putDouble(stepRemainder);
+        state.putLong(lastFireTime);
+        state.putInt(lattice.length);
+        long aliveBits = 0;
+        for (int i = 0; i < lattice.length; i++) {
+            if (lattice[i] != null) {
+                aliveBits |= 1L << (i % Long.SIZE);
+            }
+            if (i % Long.SIZE == Long.SIZE - 1 || i == lattice.length - 1) {
+                state.putLong(aliveBits);
+                aliveBits = 0;
+            }
+        }
+        state.putInt(shootersCount);
+        for (int i = 0; i < shootersCount; i++) {
+            state.putInt(shooterCols[i]);
+        }
+    }
+
+    /**
+     * Restores the formation's state from a snapshot. The formation must be
+     * the one the snapshot was saved from, with no alien removed since it
+     * was created.
+     *
+     * @param state the snapshot
+     */
+    public void restoreState(StateBuffer state) {
+        originX = state.getInt();
+        originY = state.getInt();
+        direction = state.getInt();
+        currSpeed = state.getInt();
+        stepRemainder = state.getDouble();
+        lastFireTime = state.getLong();
+        int cells = state.getInt();
+        if (cells != lattice.length) {
+            throw new IllegalArgumentException("Snapshot of another formation");
+        }
+        long aliveBits = 0;
+        for (int i = 0; i < cells; i++) {
+            if (i % Long.SIZE == 0) {
+                aliveBits = state.getLong();
+            }
+            Alien alien = lattice[i];
+            if (alien != null && (aliveBits & (1L << (i % Long.SIZE))) == 0) {
+                removeAlien(alien);
+            }
+        }
+
+        // The shooters were drawn from in the order the columns emptied
+        shootersCount = state.getInt();
+        for (int i = 0; i < shootersCount; i++) {
+            int col = state.getInt();
+            shooterCols[i] = col;
+            shooterSlot[col] = i;
+        }
+        updateLimits();
     }
 }
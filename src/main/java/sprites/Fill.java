@@ -40,11 +40,26 @@ public class Fill {
      */
     public void fillRectangle(DrawSurface d, Rectangle rect) {
         Point pos = rect.getUpperLeft();
+        fillRectangle(d, (int) pos.getX(), (int) pos.getY(), rect.getWidth(),
+                rect.getHeight());
+    }
+
+    /**
+     * Fills the rectangle at the given position.
+     *
+     * @param d      draw surface
+     * @param x      x coordinate of the upper left vertex
+     * @param y      y coordinate of the upper left vertex
+     * @param width  width of the rectangle
+     * @param height height of the rectangle
+     */
+    public void fillRectangle(DrawSurface d, int x, int y, double width,
+                              double height) {
         if (this.isColor()) {
-            new Rectangle(pos, rect.getWidth(), rect.getHeight(), fillColor)
-                    .drawOn(d);
+            d.setColor(fillColor);
+            d.fillRectangle(x, y, (int) width, (int) height);
         } else {
-            d.drawImage((int) pos.getX(), (int) pos.getY(), fillImage);
+            d.drawImage(x, y, fillImage);
         }
     }
 
@@ -55,8 +70,7 @@ public class Fill {
      */
     public void fillSurface(DrawSurface d) {
         if (this.isColor()) {
-            new Rectangle(0, 0, d.getWidth(), d.getHeight(), fillColor)
-                    .drawOn(d);
+            fillRectangle(d, 0, 0, d.getWidth(), d.getHeight());
         } else {
             d.drawImage(0, 0, fillImage);
         }
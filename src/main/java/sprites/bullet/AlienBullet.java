@@ -9,6 +9,12 @@ import java.awt.Color;
  * A bullet shot from an alien.
  */
 public class AlienBullet extends Bullet {
+    static final int RADIUS = 4;
+    static final Color COLOR = new Color(251, 15, 0);
+    static final Color STROKE = new Color(161, 9, 0);
+    static final Velocity VELOCITY
+            = Velocity.fromAngleAndSpeed(180, 400);
+
     /**
      * Constructs an alien's bullet.
      *
@@ -16,8 +22,7 @@ public class AlienBullet extends Bullet {
      * @param y y coord
      */
     public AlienBullet(double x, double y) {
-        super(new Point(x, y), 4, new Color(251, 15, 0), new Color(161, 9, 0),
-                Velocity.fromAngleAndSpeed(180, 400));
+        super(new Point(x, y), RADIUS, COLOR, STROKE, VELOCITY);
     }
 
     /**
@@ -30,4 +35,4 @@ public class AlienBullet extends Bullet {
         setEnvironment(g.getEnemyEnvironment());
         super.addToGame(g);
     }
-}
\ No newline at end of file
+}
@@ -2,12 +2,14 @@ package sprites.bullet;
 
 import animation.GameLevel;
 import biuoop.DrawSurface;
-import graphics.Line;
 import graphics.Point;
 import gameplay.GameEnvironment;
 import listeners.HitNotifier;
 import sprites.collidables.Collidable;
+import sprites.collidables.CompoundCollidable;
 import sprites.Sprite;
+import utils.StateBuffer;
+import utils.StateHash;
 
 import java.awt.Color;
 
@@ -16,11 +18,17 @@ import java.awt.Color;
  */
 public abstract class Bullet implements Sprite {
     private Point center;
+    private double x; // the exact center, center holds it rounded
+    private double y;
     private int radius;
     private Color color;
     private Color stroke;
     private Velocity velocity;
     private GameEnvironment environment;
+    private int slot = -1;
+    private long serial = 0;
+    private boolean inGame = false;
+    private BulletPool pool = null;
 
     /**
      * Constructs a bullet.
@@ -34,6 +42,8 @@ public abstract class Bullet implements Sprite {
     public Bullet(Point center, int r, Color color,
                   Color stroke, Velocity velocity) {
         this.center = center;
+        this.x = center.getX();
+        this.y = center.getY();
         this.radius = r;
         this.color = color;
         this.stroke = stroke;
@@ -58,6 +68,15 @@ public abstract class Bullet implements Sprite {
         return (int) center.getY();
     }
 
+    /**
+     * Returns the ball's radius.
+     *
+     * @return radius
+     */
+    public int getRadius() {
+        return radius;
+    }
+
     /**
      * Draws the ball on the given DrawSurface.
      *
@@ -88,17 +107,26 @@ public abstract class Bullet implements Sprite {
      */
     @Override
     public void addToGame(GameLevel g) {
+        inGame = true;
         g.addSprite(this);
         g.addBullet(this);
     }
 
     /**
-     * Removes the ball from the gameLevel.
+     * Removes the ball from the gameLevel. A pooled ball returns to its pool.
      *
      * @param gameLevel the gameLevel object to remove from
      */
     public void removeFromGame(GameLevel gameLevel) {
+        if (!inGame) {
+            return; // already removed
+        }
+        inGame = false;
         gameLevel.removeSprite(this);
+        gameLevel.removeBullet(this);
+        if (pool != null) {
+            pool.release(this);
+        }
     }
 
     /**
@@ -107,9 +135,13 @@ public abstract class Bullet implements Sprite {
      * @param secPerMove time for one move
      */
     public void moveOneStep(double secPerMove) {
-        // Check for collision and get the closest one
-        Line trajectory = getTrajectory(secPerMove);
-        CollisionInfo collision = getCollision(trajectory);
+        // Check for collision on the way and get the closest one. The
+        // trajectory ends where the bullet moves, not at a rounded pixel, so
+        // short steps leave no gaps between them
+        double endX = x + velocity.getX() * secPerMove;
+        double endY = y + velocity.getY() * secPerMove;
+        CollisionInfo collision = environment.getClosestCollision(x, y,
+                endX, endY);
 
         // If no collision - move tha ball to needed place
         if (collision == null) {
@@ -125,17 +157,21 @@ public abstract class Bullet implements Sprite {
      * @param secPerMove seconds per move
      */
     protected void applyVelocity(double secPerMove) {
-        center = velocity.applyToPoint(center, secPerMove);
+        setCenter(x + velocity.getX() * secPerMove,
+                y + velocity.getY() * secPerMove);
     }
 
     /**
      * Sets the center position.
      *
-     * @param x x coord
-     * @param y y coord
+     * @param centerX x coord
+     * @param centerY y coord
      */
-    public void setCenter(double x, double y) {
-        center = new Point(x, y);
+    public void setCenter(double centerX, double centerY) {
+        x = centerX;
+        y = centerY;
+        center.setX(centerX);
+        center.setY(centerY);
     }
 
     /**
@@ -153,35 +189,86 @@ public abstract class Bullet implements Sprite {
 
         // Move the ball slightly before the collision point
         setCenter(collisionX - smallDx, collisionY - smallDy);
-        ((HitNotifier) collisionObject).notifyHit(this);
+        if (collisionObject instanceof CompoundCollidable) {
+            ((CompoundCollidable) collisionObject)
+                    .notifyHit(collision.collisionPart(), this);
+        } else {
+            ((HitNotifier) collisionObject).notifyHit(this);
+        }
     }
 
     /**
-     * Gets the trajectory of the ball from start point to next step.
+     * Sets the bullet's environment.
      *
-     * @param secPerMove seconds per move to apply velocity
-     * @return trajectory
+     * @param bulletEnvironment collection of hittable objects
      */
-    protected Line getTrajectory(double secPerMove) {
-        return new Line(center, velocity.applyToPoint(center, secPerMove));
+    public void setEnvironment(GameEnvironment bulletEnvironment) {
+        environment = bulletEnvironment;
     }
 
     /**
-     * Get the collision info by the trajectory.
+     * Gets the bullet's place in the bullet manager.
      *
-     * @param trajectory the line to check collision
-     * @return Gets collision with the closest object, null if no collision
+     * @return the slot, -1 if not managed
      */
-    private CollisionInfo getCollision(Line trajectory) {
-        return environment.getClosestCollision(trajectory);
+    int getSlot() {
+        return slot;
     }
 
     /**
-     * Sets the bullet's environment.
+     * Sets the bullet's place in the bullet manager.
      *
-     * @param bulletEnvironment collection of hittable objects
+     * @param newSlot the slot, -1 if not managed
      */
-    public void setEnvironment(GameEnvironment bulletEnvironment) {
-        environment = bulletEnvironment;
+    void setSlot(int newSlot) {
+        slot = newSlot;
+    }
+
+    /**
+     * Gets the number of the bullet's joining the bullet manager. Bullets
+     * that joined later have higher numbers.
+     *
+     * @return the serial number
+     */
+    long getSerial() {
+        return serial;
+    }
+
+    /**
+     * Sets the number of the bullet's joining the bullet manager.
+     *
+     * @param newSerial the serial number
+     */
+    void setSerial(long newSerial) {
+        serial = newSerial;
+    }
+
+    /**
+     * Sets the pool the bullet returns to when removed from the game.
+     *
+     * @param bulletPool the pool
+     */
+    void setPool(BulletPool bulletPool) {
+        pool = bulletPool;
+    }
+
+    /**
+     * Adds the bullet's exact center to a state hash.
+     *
+     * @param hash the hash
+     */
+    public void hashState(StateHash hash) {
+        hash.add(x);
+        hash.add(y);
+    }
+
+    /**
+     * Saves the bullet's exact center into a snapshot.
+     *
+     * @param state the snapshot
+     */
+    public void saveState(StateBuffer state) {
+        state.putDouble(x);
+        state.putDouble(y);
     }
-}
\ No newline at end of file
+}
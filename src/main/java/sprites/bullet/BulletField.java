@@ -0,0 +1,331 @@
+package sprites.bullet;
+
+import animation.GameLevel;
+import biuoop.DrawSurface;
+import gameplay.GameEnvironment;
+import listeners.HitNotifier;
+import sprites.Sprite;
+import sprites.collidables.Collidable;
+import sprites.collidables.CompoundCollidable;
+import utils.Consts;
+import utils.StateBuffer;
+import utils.StateHash;
+
+import java.awt.Color;
+
+/**
+ * All the bullets of a bullet hell game. Instead of a bullet object for
+ * every projectile, the bullets are kept in parallel arrays and all of them
+ * are moved, collided and culled together once per frame.
+ */
+public class BulletField implements Sprite {
+    public static final int PLAYER = 0;
+    public static final int ALIEN = 1;
+    private static final int INIT_CAPACITY = 256;
+    private static final int[] RADIUS = {PlayerBullet.RADIUS,
+            AlienBullet.RADIUS};
+    private static final Color[] COLOR = {PlayerBullet.COLOR,
+            AlienBullet.COLOR};
+    private static final Color[] STROKE = {PlayerBullet.STROKE,
+            AlienBullet.STROKE};
+    private int count = 0;
+    private double[] x = new double[INIT_CAPACITY];
+    private double[] y = new double[INIT_CAPACITY];
+    private double[] dx = new double[INIT_CAPACITY];
+    private double[] dy = new double[INIT_CAPACITY];
+    private double[] endX = new double[INIT_CAPACITY];
+    private double[] endY = new double[INIT_CAPACITY];
+    private int[] owner = new int[INIT_CAPACITY];
+    private boolean[] dead = new boolean[INIT_CAPACITY];
+    private GameEnvironment[] environments = new GameEnvironment[2];
+    private FieldBullet hitter = new FieldBullet(this);
+
+    /**
+     * Adds a bullet to the field.
+     *
+     * @param bulletOwner PLAYER or ALIEN
+     * @param startX      x coord
+     * @param startY      y coord
+     * @param velocityX   velocity in x axe, pixels per second
+     * @param velocityY   velocity in y axe, pixels per second
+     */
+    public void add(int bulletOwner, double startX, double startY,
+                    double velocityX, double velocityY) {
+        if (count == x.length) {
+            grow();
+        }
+        x[count] = startX;
+        y[count] = startY;
+        dx[count] = velocityX;
+        dy[count] = velocityY;
+        owner[count] = bulletOwner;
+        dead[count] = false;
+        count++;
+    }
+
+    /**
+     * Adds a fan of bullets spread evenly around the owner's shooting
+     * direction.
+     *
+     * @param bulletOwner PLAYER or ALIEN
+     * @param startX      x coord
+     * @param startY      y coord
+     * @param bullets     number of bullets in the fan
+     * @param spread      angle between the fan's outer bullets, in degrees
+     */
+    public void addFan(int bulletOwner, double startX, double startY,
+                       int bullets, double spread) {
+        Velocity velocity = bulletOwner == PLAYER
+                ? PlayerBullet.VELOCITY : AlienBullet.VELOCITY;
+        double speed = Math.sqrt(velocity.getX() * velocity.getX()
+                + velocity.getY() * velocity.getY());
+        double angle = Math.atan2(velocity.getY(), velocity.getX());
+        double step = 0;
+        if (bullets > 1) {
+            angle -= Math.toRadians(spread) / 2;
+            step = Math.toRadians(spread) / (bullets - 1);
+        }
+        for (int i = 0; i < bullets; i++) {
+            add(bulletOwner, startX, startY, Math.cos(angle) * speed,
+                    Math.sin(angle) * speed);
+            angle += step;
+        }
+    }
+
+    /**
+     * Returns the number of bullets in the field.
+     *
+     * @return bullets count
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Removes all the bullets.
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Draw the bullets, switching colors once per owner instead of once per
+     * bullet.
+     *
+     * @param d the draw surface
+     */
+    @Override
+    public void drawOn(DrawSurface d) {
+        for (int o = PLAYER; o <= ALIEN; o++) {
+            int r = RADIUS[o];
+            d.setColor(COLOR[o]);
+            for (int i = 0; i < count; i++) {
+                if (owner[i] == o) {
+                    d.fillCircle((int) x[i], (int) y[i], r);
+                }
+            }
+            d.setColor(STROKE[o]);
+            for (int i = 0; i < count; i++) {
+                if (owner[i] == o) {
+                    d.drawCircle((int) x[i], (int) y[i], r);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves all the bullets one step, lets the hit bullets notify what they
+     * hit and removes the hit and the off screen bullets.
+     *
+     * @param dt time passed since last invocation
+     */
+    @Override
+    public void timePassed(double dt) {
+        int n = count;
+
+        // Find where every bullet ends this step, in one tight loop
+        for (int i = 0; i < n; i++) {
+            endX[i] = x[i] + dx[i] * dt;
+            endY[i] = y[i] + dy[i] * dt;
+        }
+
+        // Check the trajectories for collisions
+        for (int i = 0; i < n; i++) {
+            CollisionInfo collision = environments[owner[i]]
+                    .getClosestCollision(x[i], y[i], endX[i], endY[i]);
+            if (collision == null) {
+                x[i] = endX[i];
+                y[i] = endY[i];
+            } else {
+                handleCollision(i, collision);
+            }
+        }
+
+        compact();
+    }
+
+    /**
+     * Moves the bullet right before the collision point and notifies the hit
+     * object, through the shared hitter bullet.
+     *
+     * @param i         index of the bullet
+     * @param collision the collision info
+     */
+    private void handleCollision(int i, CollisionInfo collision) {
+        x[i] = collision.collisionPoint().getX() - dx[i] / 100;
+        y[i] = collision.collisionPoint().getY() - dy[i] / 100;
+        hitter.attach(i, x[i], y[i]);
+        Collidable collisionObject = collision.collisionObject();
+        if (collisionObject instanceof CompoundCollidable) {
+            ((CompoundCollidable) collisionObject)
+                    .notifyHit(collision.collisionPart(), hitter);
+        } else {
+            ((HitNotifier) collisionObject).notifyHit(hitter);
+        }
+    }
+
+    /**
+     * Removes the dead and the off screen bullets, keeping the others in
+     * their order.
+     */
+    private void compact() {
+        Consts consts = Consts.getInstance();
+        int width = consts.getGameWidth();
+        int height = consts.getGameHeight();
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int r = RADIUS[owner[i]];
+            if (dead[i] || x[i] + r < 0 || x[i] - r > width
+                    || y[i] + r < 0 || y[i] - r > height) {
+                continue;
+            }
+            x[kept] = x[i];
+            y[kept] = y[i];
+            dx[kept] = dx[i];
+            dy[kept] = dy[i];
+            owner[kept] = owner[i];
+            dead[kept] = false;
+            kept++;
+        }
+        count = kept;
+    }
+
+    /**
+     * Removes a bullet. It is dropped at the end of the current step.
+     *
+     * @param i index of the bullet
+     */
+    void kill(int i) {
+        dead[i] = true;
+    }
+
+    /**
+     * Doubles the arrays' capacity.
+     */
+    private void grow() {
+        int capacity = x.length * 2;
+        x = grow(x, capacity);
+        y = grow(y, capacity);
+        dx = grow(dx, capacity);
+        dy = grow(dy, capacity);
+        endX = grow(endX, capacity);
+        endY = grow(endY, capacity);
+        int[] newOwner = new int[capacity];
+        System.arraycopy(owner, 0, newOwner, 0, count);
+        owner = newOwner;
+        boolean[] newDead = new boolean[capacity];
+        System.arraycopy(dead, 0, newDead, 0, count);
+        dead = newDead;
+    }
+
+    /**
+     * Copies an array into a bigger one.
+     *
+     * @param array    the array
+     * @param capacity the new size
+     * @return the new array
+     */
+    private double[] grow(double[] array, int capacity) {
+        double[] grown = new double[capacity];
+        System.arraycopy(array, 0, grown, 0, count);
+        return grown;
+    }
+
+    /**
+     * Adds the field to the game.
+     *
+     * @param g game
+     */
+    @Override
+    public void addToGame(GameLevel g) {
+        environments[PLAYER] = g.getPlayerEnvironment();
+        environments[ALIEN] = g.getEnemyEnvironment();
+        g.addSprite(this);
+    }
+
+    /**
+     * Adds the live bullets to a state hash, in their order. The bullets
+     * killed but not dropped yet are left out, so the hash depends on the
+     * live bullets only.
+     *
+     * @param hash the hash
+     */
+    public void hashState(StateHash hash) {
+        int live = 0;
+        for (int i = 0; i < count; i++) {
+            if (!dead[i]) {
+                hash.add(owner[i]);
+                hash.add(x[i]);
+                hash.add(y[i]);
+                live++;
+            }
+        }
+        hash.add(live);
+    }
+
+    /**
+     * Saves the live bullets into a snapshot.
+     *
+     * @param state the snapshot
+     */
+    public void saveState(StateBuffer state) {
+        int live = 0;
+        for (int i = 0; i < count; i++) {
+            if (!dead[i]) {
+                live++;
+            }
+        }
+        state.putInt(live);
+        for (int i = 0; i < count; i++) {
+            if (!dead[i]) {
+                state.putInt(owner[i]);
+                state.putDouble(x[i]);
+                state.putDouble(y[i]);
+                state.putDouble(dx[i]);
+                state.putDouble(dy[i]);
+            }
+        }
+    }
+
+    /**
+     * Restores the bullets from a snapshot, in place of the current ones.
+     *
+     * @param state the snapshot
+     */
+    public void restoreState(StateBuffer state) {
+        count = 0;
+        int saved = state.getInt();
+        for (int i = 0; i < saved; i++) {
+            if (count == x.length) {
+                grow();
+            }
+            owner[count] = state.getInt();
+            x[count] = state.getDouble();
+            y[count] = state.getDouble();
+            dx[count] = state.getDouble();
+            dy[count] = state.getDouble();
+            dead[count] = false;
+            count++;
+        }
+    }
+}
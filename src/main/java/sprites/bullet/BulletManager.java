@@ -0,0 +1,203 @@
+package sprites.bullet;
+
+import animation.GameLevel;
+import utils.Consts;
+import utils.StateBuffer;
+import utils.StateHash;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Keeps track of the bullets that are alive in a game level. Bullets leave
+ * it when they hit something, when they fly off the screen, or when the
+ * level clears the screen.
+ */
+public class BulletManager {
+    private static final int PLAYER = 0;
+    private static final int ALIEN = 1;
+    private List<Bullet> bullets = new ArrayList<Bullet>();
+    private long nextSerial = 0;
+    private BulletPool playerPool = new BulletPool() {
+        @Override
+        protected Bullet create() {
+            return new PlayerBullet(0, 0);
+        }
+    };
+    private BulletPool alienPool = new BulletPool() {
+        @Override
+        protected Bullet create() {
+            return new AlienBullet(0, 0);
+        }
+    };
+
+    /**
+     * Gets a player's bullet from the level's pool. It returns to the pool
+     * when it is removed from the game.
+     *
+     * @param x x coord
+     * @param y y coord
+     * @return the bullet
+     */
+    public Bullet obtainPlayerBullet(double x, double y) {
+        return playerPool.acquire(x, y);
+    }
+
+    /**
+     * Gets an alien's bullet from the level's pool. It returns to the pool
+     * when it is removed from the game.
+     *
+     * @param x x coord
+     * @param y y coord
+     * @return the bullet
+     */
+    public Bullet obtainAlienBullet(double x, double y) {
+        return alienPool.acquire(x, y);
+    }
+
+    /**
+     * Adds a new bullet.
+     *
+     * @param bullet the bullet
+     */
+    public void add(Bullet bullet) {
+        if (bullet.getSlot() != -1) {
+            return; // already managed
+        }
+        bullet.setSlot(bullets.size());
+        bullet.setSerial(nextSerial++);
+        bullets.add(bullet);
+    }
+
+    /**
+     * Removes a bullet. Does nothing if the bullet was already removed.
+     *
+     * @param bullet the bullet
+     */
+    public void remove(Bullet bullet) {
+        int slot = bullet.getSlot();
+        if (slot == -1) {
+            return;
+        }
+
+        // Move the last bullet into the free slot
+        Bullet last = bullets.remove(bullets.size() - 1);
+        if (last != bullet) {
+            bullets.set(slot, last);
+            last.setSlot(slot);
+        }
+        bullet.setSlot(-1);
+    }
+
+    /**
+     * Returns the number of live bullets.
+     *
+     * @return bullets count
+     */
+    public int size() {
+        return bullets.size();
+    }
+
+    /**
+     * Removes from the game all the bullets that have left the screen.
+     *
+     * @param game the game level
+     */
+    public void removeOffScreen(GameLevel game) {
+        Consts consts = Consts.getInstance();
+        int width = consts.getGameWidth();
+        int height = consts.getGameHeight();
+
+        // Go backwards, removing moves the last bullet into the free slot
+        for (int i = bullets.size() - 1; i >= 0; i--) {
+            Bullet bullet = bullets.get(i);
+            int r = bullet.getRadius();
+            if (bullet.getX() + r < 0 || bullet.getX() - r > width
+                    || bullet.getY() + r < 0 || bullet.getY() - r > height) {
+                bullet.removeFromGame(game);
+            }
+        }
+    }
+
+    /**
+     * Removes all the bullets from the game.
+     *
+     * @param game the game level
+     */
+    public void clear(GameLevel game) {
+        while (!bullets.isEmpty()) {
+            bullets.get(bullets.size() - 1).removeFromGame(game);
+        }
+    }
+
+    /**
+     * Adds the bullets to a state hash, in their order.
+     *
+     * @param hash the hash
+     */
+    public void hashState(StateHash hash) {
+        hash.add(bullets.size());
+        for (int i = 0; i < bullets.size(); i++) {
+            bullets.get(i).hashState(hash);
+        }
+    }
+
+    /**
+     * Saves the bullets into a snapshot: every bullet's kind and center, in
+     * their slots, with the order they joined the game in.
+     *
+     * @param state the snapshot
+     */
+    public void saveState(StateBuffer state) {
+        state.putInt(bullets.size());
+        for (int i = 0; i < bullets.size(); i++) {
+            Bullet bullet = bullets.get(i);
+            state.putInt(bullet instanceof PlayerBullet ? PLAYER : ALIEN);
+            state.putLong(bullet.getSerial());
+            bullet.saveState(state);
+        }
+    }
+
+    /**
+     * Restores the bullets from a snapshot into a game without bullets. The
+     * bullets join the game in the order they first did, so the sprites are
+     * updated in the same order as in the saved game, and go back to their
+     * slots.
+     *
+     * @param state the snapshot
+     * @param game  the game to add the bullets to
+     */
+    public void restoreState(StateBuffer state, GameLevel game) {
+        int count = state.getInt();
+        Bullet[] restored = new Bullet[count];
+        for (int i = 0; i < count; i++) {
+            int kind = state.getInt();
+            long serial = state.getLong();
+            double x = state.getDouble();
+            double y = state.getDouble();
+            restored[i] = kind == PLAYER ? obtainPlayerBullet(x, y)
+                    : obtainAlienBullet(x, y);
+            restored[i].setSerial(serial);
+        }
+
+        Bullet[] joined = restored.clone();
+        Arrays.sort(joined, new Comparator<Bullet>() {
+            @Override
+            public int compare(Bullet a, Bullet b) {
+                return Long.compare(a.getSerial(), b.getSerial());
+            }
+        });
+        for (Bullet bullet : joined) {
+            long serial = bullet.getSerial();
+            bullet.addToGame(game);
+            bullet.setSerial(serial);
+            nextSerial = Math.max(nextSerial, serial + 1);
+        }
+        for (int i = 0; i < count; i++) {
+            bullets.set(i, restored[i]);
+            restored[i].setSlot(i);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package sprites.bullet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A pool of bullets of one kind. Bullets removed from the game return to the
+ * pool and are reused for the next shots, so shooting allocates nothing once
+ * the pool is warm. A pool belongs to the bullet manager of one level, and
+ * is used by the thread that runs the level only.
+ */
+abstract class BulletPool {
+    private List<Bullet> free = new ArrayList<Bullet>();
+
+    /**
+     * Gets a bullet from the pool, or creates one if the pool is empty.
+     *
+     * @param x x coord
+     * @param y y coord
+     * @return a bullet at the given position
+     */
+    Bullet acquire(double x, double y) {
+        Bullet bullet;
+        if (free.isEmpty()) {
+            bullet = create();
+            bullet.setPool(this);
+        } else {
+            bullet = free.remove(free.size() - 1);
+        }
+        bullet.setCenter(x, y);
+        return bullet;
+    }
+
+    /**
+     * Returns a bullet to the pool.
+     *
+     * @param bullet a bullet that was removed from the game
+     */
+    void release(Bullet bullet) {
+        free.add(bullet);
+    }
+
+    /**
+     * Creates a new bullet of the pool's kind.
+     *
+     * @return the new bullet
+     */
+    protected abstract Bullet create();
+}
@@ -9,6 +9,14 @@ import sprites.collidables.Collidable;
 public class CollisionInfo {
     private Point collisionPoint;
     private Collidable collisionObject;
+    private int collisionPart;
+
+    /**
+     * Creates an empty collision info, to be set again and again.
+     */
+    public CollisionInfo() {
+        this(new Point(0, 0), null, -1);
+    }
 
     /**
      * Set the collision info.
@@ -17,8 +25,39 @@ public class CollisionInfo {
      * @param collisionObject the object of collision
      */
     public CollisionInfo(Point collisionPoint, Collidable collisionObject) {
+        this(collisionPoint, collisionObject, -1);
+    }
+
+    /**
+     * Set the collision info with a part of a compound object.
+     *
+     * @param collisionPoint  point of collision
+     * @param collisionObject the object of collision
+     * @param collisionPart   index of the hit part, -1 if none
+     */
+    public CollisionInfo(Point collisionPoint, Collidable collisionObject,
+                         int collisionPart) {
         this.collisionPoint = collisionPoint;
         this.collisionObject = collisionObject;
+        this.collisionPart = collisionPart;
+    }
+
+    /**
+     * Sets the info to another collision, in place.
+     *
+     * @param x      x coord of the collision point
+     * @param y      y coord of the collision point
+     * @param object the object of collision
+     * @param part   index of the hit part, -1 if none
+     * @return the info itself
+     */
+    public CollisionInfo set(double x, double y, Collidable object,
+                             int part) {
+        collisionPoint.setX(x);
+        collisionPoint.setY(y);
+        collisionObject = object;
+        collisionPart = part;
+        return this;
     }
 
     /**
@@ -38,4 +77,13 @@ public class CollisionInfo {
     public Collidable collisionObject() {
         return this.collisionObject;
     }
+
+    /**
+     * The part of a compound object involved in the collision.
+     *
+     * @return index of the hit part, -1 if none
+     */
+    public int collisionPart() {
+        return this.collisionPart;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package sprites.bullet;
+
+import animation.GameLevel;
+import graphics.Point;
+
+/**
+ * Stands for one bullet of a bullet field when the bullet hits something, so
+ * the hit listeners can handle it like any other bullet. A single instance is
+ * attached to each hitting bullet in turn.
+ */
+class FieldBullet extends Bullet {
+    private BulletField field;
+    private int index = -1;
+
+    /**
+     * Creates the field's hitter.
+     *
+     * @param field the bullet field
+     */
+    FieldBullet(BulletField field) {
+        super(new Point(0, 0), 0, null, null, null);
+        this.field = field;
+    }
+
+    /**
+     * Attaches the hitter to a bullet of the field.
+     *
+     * @param i       index of the bullet
+     * @param centerX x coord of the bullet
+     * @param centerY y coord of the bullet
+     */
+    void attach(int i, double centerX, double centerY) {
+        index = i;
+        setCenter(centerX, centerY);
+    }
+
+    /**
+     * Removes the attached bullet from the field.
+     *
+     * @param gameLevel the gameLevel object to remove from
+     */
+    @Override
+    public void removeFromGame(GameLevel gameLevel) {
+        if (index >= 0) {
+            field.kill(index);
+            index = -1;
+        }
+    }
+}
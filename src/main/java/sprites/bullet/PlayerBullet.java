@@ -9,6 +9,11 @@ import java.awt.Color;
  * A bullet shot from the player.
  */
 public class PlayerBullet extends Bullet {
+    static final int RADIUS = 2;
+    static final Color COLOR = new Color(65, 255, 0);
+    static final Color STROKE = new Color(47, 185, 0);
+    static final Velocity VELOCITY = Velocity.fromAngleAndSpeed(0, 500);
+
     /**
      * Constructs a player's bullet.
      *
@@ -16,8 +21,7 @@ public class PlayerBullet extends Bullet {
      * @param y y coord
      */
     public PlayerBullet(double x, double y) {
-        super(new Point(x, y), 2, new Color(65, 255, 0), new Color(47, 185, 0),
-                Velocity.fromAngleAndSpeed(0, 500));
+        super(new Point(x, y), RADIUS, COLOR, STROKE, VELOCITY);
     }
 
     /**
@@ -1,16 +1,16 @@
 package sprites.collidables;
 
 import animation.GameLevel;
+import biuoop.DrawSurface;
 import graphics.Point;
-import sprites.bullet.AlienBullet;
-import sprites.bullet.Bullet;
 import utils.Consts;
 import utils.ImageFiller;
 
 import java.io.IOException;
 
 /**
- * This class represents a block - rectangle that a ball may collide.
+ * This class represents an alien. Once placed in a formation, its position is
+ * relative to the formation's origin.
  */
 public class Alien extends PlayerHittable {
     /**
@@ -28,44 +28,41 @@ public class Alien extends PlayerHittable {
     }
 
     /**
-     * Makes the alien fire.
+     * Makes the alien position relative to its formation's origin.
      *
-     * @param game game to fire in
+     * @param originX x coordinate of the formation origin
+     * @param originY y coordinate of the formation origin
      */
-    public void shoot(GameLevel game) {
+    public void placeInFormation(int originX, int originY) {
         Point pos = getUpperLeft();
-        Bullet bullet = new AlienBullet(pos.getX() + (getWidth() / 2),
-                pos.getY() + getHeight());
-        bullet.addToGame(game);   // Add bullet to game
+        pos.setX(pos.getX() - originX);
+        pos.setY(pos.getY() - originY);
     }
 
     /**
-     * Moves the alien one step right if step is positive. Otherwise - left.
-     *
-     * @param step step to move right
-     */
-    public void moveRight(int step) {
-        getUpperLeft().moveX(step); // move freely
-    }
-
-    /**
-     * Moves the alien one step down. If step negative - move up.
+     * Makes the alien fire.
      *
-     * @param step step to move down
+     * @param game    game to fire in
+     * @param originX x coordinate of the formation origin
+     * @param originY y coordinate of the formation origin
      */
-    public void moveDown(int step) {
-        getUpperLeft().moveY(step);
+    public void shoot(GameLevel game, int originX, int originY) {
+        Point pos = getUpperLeft();
+        game.shootAlienBullet(originX + pos.getX() + (getWidth() / 2),
+                originY + pos.getY() + getHeight());
     }
 
     /**
-     * Moves the alien.
+     * Draws the alien at its position relative to the formation origin.
      *
-     * @param stepRight step to move right
-     * @param stepDown  step to move down
+     * @param d       the draw surface
+     * @param originX x coordinate of the formation origin
+     * @param originY y coordinate of the formation origin
      */
-    public void move(int stepRight, int stepDown) {
-        moveRight(stepRight);
-        moveDown(stepDown);
+    public void drawOn(DrawSurface d, int originX, int originY) {
+        Point pos = getUpperLeft();
+        getFill().fillRectangle(d, (int) (originX + pos.getX()),
+                (int) (originY + pos.getY()), getWidth(), getHeight());
     }
 
     /**
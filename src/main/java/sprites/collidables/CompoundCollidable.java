@@ -0,0 +1,31 @@
+package sprites.collidables;
+
+import graphics.SegmentHit;
+import sprites.bullet.Bullet;
+
+/**
+ * A collidable made of many small parts. Its collision rectangle only bounds
+ * the parts, and it finds by itself which part a trajectory hits.
+ */
+public interface CompoundCollidable extends Collidable {
+    /**
+     * Finds the first part the trajectory hits.
+     *
+     * @param startX x coordinate of the trajectory start
+     * @param startY y coordinate of the trajectory start
+     * @param endX   x coordinate of the trajectory end
+     * @param endY   y coordinate of the trajectory end
+     * @param hit    receives the hit parameter, side and part
+     * @return true if a part is hit
+     */
+    boolean resolveHit(double startX, double startY, double endX,
+                       double endY, SegmentHit hit);
+
+    /**
+     * Notifies the object that one of its parts was hit.
+     *
+     * @param part   index of the hit part
+     * @param hitter the bullet that hit
+     */
+    void notifyHit(int part, Bullet hitter);
+}
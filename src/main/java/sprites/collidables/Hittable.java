@@ -4,19 +4,17 @@ import biuoop.DrawSurface;
 import graphics.Point;
 import graphics.Rectangle;
 import listeners.HitListener;
+import listeners.HitListeners;
 import listeners.HitNotifier;
 import sprites.Fill;
 import sprites.bullet.Bullet;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Any hittable object that can be destroyed by a hit.
  */
 abstract class Hittable extends Rectangle implements Collidable, HitNotifier {
     private int hitPoints = 1;
-    private List<HitListener> hitListeners = new ArrayList<HitListener>();
+    private HitListeners hitListeners = new HitListeners();
     private Fill fill;
 
     /**
@@ -58,6 +56,15 @@ abstract class Hittable extends Rectangle implements Collidable, HitNotifier {
         return this;
     }
 
+    /**
+     * Gets the filling of the object.
+     *
+     * @return the filling
+     */
+    protected Fill getFill() {
+        return fill;
+    }
+
     /**
      * Reduces the score of the block.
      */
@@ -97,6 +104,13 @@ abstract class Hittable extends Rectangle implements Collidable, HitNotifier {
         hitListeners.remove(hl);
     }
 
+    /**
+     * Removes all the listeners.
+     */
+    protected void removeAllHitListeners() {
+        hitListeners.clear();
+    }
+
     /**
      * Handles hit event for this alien.
      *
@@ -105,14 +119,8 @@ abstract class Hittable extends Rectangle implements Collidable, HitNotifier {
     public void notifyHit(Bullet hitter) {
         reduceScore();
 
-        // Make a copy of the hitListeners before iterating over them.
-        List<HitListener> listeners =
-                new ArrayList<HitListener>(hitListeners);
-
         // Notify all listeners about a hit event:
-        for (HitListener hl : listeners) {
-            hl.hitEvent(this, hitter);
-        }
+        hitListeners.notifyHit(this, hitter);
     }
 
     /**
@@ -6,9 +6,9 @@ import biuoop.KeyboardSensor;
 import graphics.Point;
 import sprites.Fill;
 import sprites.Sprite;
-import sprites.bullet.Bullet;
-import sprites.bullet.PlayerBullet;
 import utils.Consts;
+import utils.StateBuffer;
+import utils.StateHash;
 
 import java.awt.Color;
 
@@ -24,7 +24,9 @@ public final class Ship extends Hittable implements Sprite {
     private static Ship instance;
     private biuoop.KeyboardSensor keyboard;
     private double step;
+    private double left; // the exact x coord, the rectangle holds it rounded
     private boolean isAlive = true;
+    private GameLevel game = null;
 
     /**
      * Create a new paddle with the keyboard sensor.
@@ -40,10 +42,12 @@ public final class Ship extends Hittable implements Sprite {
                 new Fill(Ship.FILL_COLOR));
         this.keyboard = keyboard;
         this.step = step;
+        this.left = getUpperLeft().getX();
     }
 
     /**
-     * Returns a ship with new width and speed. If doesn't exist - create it.
+     * Returns a ship with new keyboard, width and speed. If doesn't exist -
+     * create it.
      *
      * @param keyboard keyboard sensor
      * @param speed    ship's speed
@@ -55,6 +59,7 @@ public final class Ship extends Hittable implements Sprite {
         if (instance == null) { // create if doesn't exist
             instance = new Ship(keyboard, speed, width);
         } else {
+            instance.keyboard = keyboard; // every game may read its own
             instance.setStep(speed);
             instance.setWidth(width);
             instance.moveToDefault();
@@ -85,7 +90,28 @@ public final class Ship extends Hittable implements Sprite {
      */
     public void moveToDefault() {
         Consts f = Consts.getInstance();
-        getUpperLeft().setX(f.getGameWidth() / 2 - getWidth() / 2);
+        moveTo(f.getGameWidth() / 2 - getWidth() / 2);
+    }
+
+    /**
+     * Moves the ship to an exact x coord. Moves of a fraction of a pixel add
+     * up, so the ship's speed does not depend on the frame rate.
+     *
+     * @param x the x coord of the left side
+     */
+    private void moveTo(double x) {
+        left = x;
+        getUpperLeft().setX(x);
+        updatePosition();
+    }
+
+    /**
+     * Lets the game know the ship has moved.
+     */
+    private void updatePosition() {
+        if (game != null) {
+            game.updateEnemyCollidable(this);
+        }
     }
 
     /**
@@ -120,12 +146,17 @@ public final class Ship extends Hittable implements Sprite {
     }
 
     /**
-     * Adds the paddle to the game.
+     * Adds the paddle to the game. The listeners of the level the ship was
+     * in before are removed - they would act on a level that is over.
      *
      * @param g game
      */
     @Override
     public void addToGame(GameLevel g) {
+        if (game != g) {
+            removeAllHitListeners();
+        }
+        game = g;
         g.addSprite(this);
         g.addEnemyCollidable(this);
     }
@@ -137,15 +168,14 @@ public final class Ship extends Hittable implements Sprite {
      */
     public void moveRight(double moveTimeSec) {
         Consts consts = Consts.getInstance();
-        int speed = (int) (step * moveTimeSec);
-        Point pos = getUpperLeft();
+        double speed = step * moveTimeSec;
         int gameWidth = consts.getGameWidth() - consts.getMargin();
 
         // Make sure not to pass the screen borders
-        if ((pos.getX() + getWidth() + speed) > gameWidth) {
-            pos.setX(gameWidth - getWidth());
+        if ((left + getWidth() + speed) > gameWidth) {
+            moveTo(gameWidth - getWidth());
         } else {
-            pos.moveX(speed);
+            moveTo(left + speed);
         }
     }
 
@@ -155,15 +185,14 @@ public final class Ship extends Hittable implements Sprite {
      * @param moveTimeSec seconds for move
      */
     public void moveLeft(double moveTimeSec) {
-        int speed = (int) (step * moveTimeSec);
+        double speed = step * moveTimeSec;
         Consts consts = Consts.getInstance();
-        Point pos = getUpperLeft();
 
         // Make sure not to pass the screen borders
-        if ((pos.getX() - speed) < consts.getMargin()) {
-            pos.setX(consts.getMargin());
+        if ((left - speed) < consts.getMargin()) {
+            moveTo(consts.getMargin());
         } else {
-            pos.moveX(-speed);
+            moveTo(left - speed);
         }
     }
 
@@ -174,9 +203,7 @@ public final class Ship extends Hittable implements Sprite {
      */
     public void shoot(GameLevel game) {
         Point pos = getUpperLeft();
-        Bullet bullet
-                = new PlayerBullet(pos.getX() + (getWidth() / 2), pos.getY());
-        bullet.addToGame(game);   // Add bullet to game
+        game.shootPlayerBullet(pos.getX() + (getWidth() / 2), pos.getY());
     }
 
     /**
@@ -202,4 +229,34 @@ public final class Ship extends Hittable implements Sprite {
         isAlive = true;
         moveToDefault();
     }
-}
\ No newline at end of file
+
+    /**
+     * Adds the ship's state to a state hash.
+     *
+     * @param hash the hash
+     */
+    public void hashState(StateHash hash) {
+        hash.add(left);
+        hash.add(isAlive);
+    }
+
+    /**
+     * Saves the ship's state into a snapshot.
+     *
+     * @param state the snapshot
+     */
+    public void saveState(StateBuffer state) {
+        state.putDouble(left);
+        state.putBoolean(isAlive);
+    }
+
+    /**
+     * Restores the ship's state from a snapshot.
+     *
+     * @param state the snapshot
+     */
+    public void restoreState(StateBuffer state) {
+        moveTo(state.getDouble());
+        isAlive = state.getBoolean();
+    }
+}
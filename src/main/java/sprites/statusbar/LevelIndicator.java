@@ -6,7 +6,7 @@ import biuoop.DrawSurface;
  * Represents a level indicator at the status bar.
  */
 public class LevelIndicator extends Indicator {
-    private String levelName;
+    private String text;
 
     /**
      * Creates a level sprites.statusbar.Indicator.
@@ -14,7 +14,7 @@ public class LevelIndicator extends Indicator {
      * @param levelName level name
      */
     public LevelIndicator(String levelName) {
-        this.levelName = levelName;
+        this.text = "Level name: " + levelName;
         setWidth(400);
         this.setX(0); // just to init
     }
@@ -28,6 +28,6 @@ public class LevelIndicator extends Indicator {
     public void drawOn(DrawSurface d) {
         // Display the level on the bar
         d.setColor(TEXT_COLOR);
-        d.drawText(getX(), START_Y, "Level name: " + levelName, TEXT_SIZE);
+        d.drawText(getX(), START_Y, text, TEXT_SIZE);
     }
 }
@@ -8,6 +8,8 @@ import utils.Counter;
  */
 public class LivesIndicator extends Indicator {
     private Counter livesLeft;
+    private int shownLives = -1;
+    private String text;
 
     /**
      * Creates a lives Indicator.
@@ -27,10 +29,15 @@ public class LivesIndicator extends Indicator {
      */
     @Override
     public void drawOn(DrawSurface d) {
+        // Build the text only when the lives change
+        if (livesLeft.getValue() != shownLives) {
+            shownLives = livesLeft.getValue();
+            text = "Lives: " + String.valueOf(shownLives);
+        }
+
         // Display the score on the bar
         d.setColor(Indicator.TEXT_COLOR);
-        String scoreStr = "Lives: " + String.valueOf(livesLeft.getValue());
-        d.drawText(getX(), Indicator.START_Y, scoreStr, Indicator.TEXT_SIZE);
+        d.drawText(getX(), Indicator.START_Y, text, Indicator.TEXT_SIZE);
 
     }
 }
@@ -8,6 +8,8 @@ import utils.Counter;
  */
 public class ScoreIndicator extends Indicator {
     private Counter playerScore;
+    private int shownScore = -1;
+    private String text;
 
     /**
      * Create a score sprites.statusbar.Indicator.
@@ -27,11 +29,15 @@ public class ScoreIndicator extends Indicator {
      */
     @Override
     public void drawOn(DrawSurface d) {
+        // Build the text only when the score changes
+        if (playerScore.getValue() != shownScore) {
+            shownScore = playerScore.getValue();
+            text = "Score: " + String.valueOf(shownScore);
+        }
+
         // Display the score on the bar
         d.setColor(Indicator.TEXT_COLOR);
-        String scoreStr
-                = "Score: " + String.valueOf(this.playerScore.getValue());
-        d.drawText(this.getX(), Indicator.START_Y, scoreStr,
+        d.drawText(this.getX(), Indicator.START_Y, text,
                 Indicator.TEXT_SIZE);
     }
 
@@ -50,7 +50,8 @@ public class StatusBar extends Rectangle implements Sprite {
 
         // Draw all the indicators on the bar
         int currStart = 100;
-        for (Indicator indicator : indicators) {
+        for (int i = 0; i < indicators.size(); i++) {
+            Indicator indicator = indicators.get(i);
             indicator.setX(currStart);
             indicator.drawOn(d);
             currStart += indicator.getWidth();
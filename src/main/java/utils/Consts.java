@@ -5,7 +5,7 @@ package utils;
  */
 public final class Consts {
     private static Consts instance;
-    private final int framesPerSec = 60;
+    private final int framesPerSec = 120;
     private final int gameHeight = 600;
     private final int gameWidth = 800;
     private final int margin = 5;
@@ -21,6 +21,9 @@ public final class Consts {
     private final int barricadesPosition = 500;
     private final int alienDownStep = 20;
     private final int enemyFireFrequency = 500;
+    private final int bulletHellFireFrequency = 100;
+    private final int bulletHellFan = 7;
+    private final double bulletHellSpread = 60;
 
     /**
      * Creates the instance.
@@ -183,4 +186,31 @@ public final class Consts {
     public int getEnemyFireFrequency() {
         return enemyFireFrequency;
     }
+
+    /**
+     * Returns the enemy's fire frequency in a bullet hell, in milliseconds.
+     *
+     * @return the enemy's bullet hell fire frequency in milliseconds.
+     */
+    public int getBulletHellFireFrequency() {
+        return bulletHellFireFrequency;
+    }
+
+    /**
+     * Returns the number of bullets in an alien's fan in a bullet hell.
+     *
+     * @return bullets in a fan
+     */
+    public int getBulletHellFan() {
+        return bulletHellFan;
+    }
+
+    /**
+     * Returns the angle between a fan's outer bullets, in degrees.
+     *
+     * @return the fan's spread angle
+     */
+    public double getBulletHellSpread() {
+        return bulletHellSpread;
+    }
 }
@@ -41,4 +41,22 @@ public class Counter {
     public int getValue() {
         return this.count;
     }
-}
\ No newline at end of file
+
+    /**
+     * Saves the count into a snapshot.
+     *
+     * @param state the snapshot
+     */
+    public void saveState(StateBuffer state) {
+        state.putInt(count);
+    }
+
+    /**
+     * Restores the count from a snapshot.
+     *
+     * @param state the snapshot
+     */
+    public void restoreState(StateBuffer state) {
+        count = state.getInt();
+    }
+}
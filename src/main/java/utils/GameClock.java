@@ -0,0 +1,67 @@
+package utils;
+
+/**
+ * The game's own clock. It does not follow the real time - it moves only
+ * when the game is advanced, by the time of every step. Timers and
+ * cooldowns read it, so the game behaves the same whether it runs in real
+ * time, faster, or in a headless simulation.
+ */
+public class GameClock {
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final long NANOS_PER_MILLI = 1000000;
+    private long nanos = 0;
+
+    /**
+     * Moves the clock forward.
+     *
+     * @param seconds the time passed
+     */
+    public void advance(double seconds) {
+        nanos += Math.round(seconds * NANOS_PER_SECOND);
+    }
+
+    /**
+     * Returns the time passed since the clock was created.
+     *
+     * @return the time in milliseconds
+     */
+    public long getMillis() {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the time passed since the clock was created.
+     *
+     * @return the time in seconds
+     */
+    public double getSeconds() {
+        return nanos / NANOS_PER_SECOND;
+    }
+
+    /**
+     * Adds the clock's time to a state hash.
+     *
+     * @param hash the hash
+     */
+    public void hashState(StateHash hash) {
+        hash.add(nanos);
+    }
+
+    /**
+     * Saves the clock's time into a snapshot.
+     *
+     * @param state the snapshot
+     */
+    public void saveState(StateBuffer state) {
+        state.putLong(nanos);
+    }
+
+    /**
+     * Restores the clock's time from a snapshot.
+     *
+     * @param state the snapshot
+     */
+    public void restoreState(StateBuffer state) {
+        nanos = state.getLong();
+    }
+}
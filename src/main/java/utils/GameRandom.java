@@ -0,0 +1,138 @@
+package utils;
+
+/**
+ * The random numbers of the game. A SplitMix64 generator: a counter moved by
+ * a fixed odd gamma and scrambled, so a number costs a few multiplications
+ * and the same seed gives the same numbers on every machine and Java
+ * version. A generator splits off independent ones, so every level draws
+ * from its own generator and a level's numbers do not depend on how many
+ * numbers the levels before it drew.
+ */
+public class GameRandom {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+    private long seed;
+    private long gamma;
+
+    /**
+     * Creates a generator.
+     *
+     * @param seed the seed, the same seed gives the same numbers
+     */
+    public GameRandom(long seed) {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    /**
+     * Creates a generator with its own gamma.
+     *
+     * @param seed  the seed
+     * @param gamma the odd step of the counter
+     */
+    private GameRandom(long seed, long gamma) {
+        this.seed = seed;
+        this.gamma = gamma;
+    }
+
+    /**
+     * Returns the next random long.
+     *
+     * @return any long
+     */
+    public long nextLong() {
+        seed += gamma;
+        return mix64(seed);
+    }
+
+    /**
+     * Returns the next random int below a bound.
+     *
+     * @param bound the bound, must be positive
+     * @return an int from 0 to bound - 1
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+
+        // Scale the high 32 bits, no division and no retries
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * Returns the next random double.
+     *
+     * @return a double from 0 inclusive to 1 exclusive
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Splits off a new generator. The new generator and this one go on
+     * with numbers that do not depend on each other.
+     *
+     * @return the new generator
+     */
+    public GameRandom split() {
+        return new GameRandom(nextLong(), mixGamma(nextLong()));
+    }
+
+    /**
+     * Adds the generator's state to a state hash.
+     *
+     * @param hash the hash
+     */
+    public void hashState(StateHash hash) {
+        hash.add(seed);
+        hash.add(gamma);
+    }
+
+    /**
+     * Saves the generator's state into a snapshot.
+     *
+     * @param state the snapshot
+     */
+    public void saveState(StateBuffer state) {
+        state.putLong(seed);
+        state.putLong(gamma);
+    }
+
+    /**
+     * Restores the generator's state from a snapshot. The generator goes on
+     * with the numbers the saved one would have given.
+     *
+     * @param state the snapshot
+     */
+    public void restoreState(StateBuffer state) {
+        seed = state.getLong();
+        gamma = state.getLong();
+    }
+
+    /**
+     * Scrambles the bits of a long.
+     *
+     * @param z the long
+     * @return the scrambled long
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Makes a gamma out of a long - odd, and with enough bit changes to
+     * scramble well.
+     *
+     * @param z the long
+     * @return the gamma
+     */
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int flips = Long.bitCount(z ^ (z >>> 1));
+        return (flips < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
@@ -0,0 +1,143 @@
+package utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A snapshot of the game's state, as bytes. The game saves its state into a
+ * buffer field by field, and restores it by reading the same fields back in
+ * the same order. A buffer to save into grows as needed and can be reused
+ * for the next snapshot.
+ */
+public class StateBuffer {
+    private static final int INIT_CAPACITY = 4096;
+    private ByteBuffer buffer;
+
+    /**
+     * Creates an empty buffer to save into.
+     */
+    public StateBuffer() {
+        buffer = ByteBuffer.allocate(INIT_CAPACITY);
+    }
+
+    /**
+     * Creates a buffer to restore from.
+     *
+     * @param data the saved bytes, from their position to their limit
+     */
+    public StateBuffer(ByteBuffer data) {
+        buffer = data;
+    }
+
+    /**
+     * Empties the buffer, to save a new snapshot into it.
+     */
+    public void clear() {
+        buffer.clear();
+    }
+
+    /**
+     * Returns the saved bytes.
+     *
+     * @return a view of the bytes saved so far
+     */
+    public ByteBuffer getBytes() {
+        ByteBuffer bytes = buffer.duplicate();
+        bytes.flip();
+        return bytes;
+    }
+
+    /**
+     * Saves an int.
+     *
+     * @param v the int
+     */
+    public void putInt(int v) {
+        ensureRoom(4);
+        buffer.putInt(v);
+    }
+
+    /**
+     * Saves a long.
+     *
+     * @param v the long
+     */
+    public void putLong(long v) {
+        ensureRoom(8);
+        buffer.putLong(v);
+    }
+
+    /**
+     * Saves a double, by its exact bits.
+     *
+     * @param v the double
+     */
+    public void putDouble(double v) {
+        ensureRoom(8);
+        buffer.putDouble(v);
+    }
+
+    /**
+     * Saves a boolean.
+     *
+     * @param v the boolean
+     */
+    public void putBoolean(boolean v) {
+        ensureRoom(1);
+        buffer.put((byte) (v ? 1 : 0));
+    }
+
+    /**
+     * Restores an int.
+     *
+     * @return the int
+     */
+    public int getInt() {
+        return buffer.getInt();
+    }
+
+    /**
+     * Restores a long.
+     *
+     * @return the long
+     */
+    public long getLong() {
+        return buffer.getLong();
+    }
+
+    /**
+     * Restores a double.
+     *
+     * @return the double
+     */
+    public double getDouble() {
+        return buffer.getDouble();
+    }
+
+    /**
+     * Restores a boolean.
+     *
+     * @return the boolean
+     */
+    public boolean getBoolean() {
+        return buffer.get() != 0;
+    }
+
+    /**
+     * Doubles the buffer until it has room for more bytes.
+     *
+     * @param bytes the bytes to save next
+     */
+    private void ensureRoom(int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        int capacity = buffer.capacity() * 2;
+        while (capacity - buffer.position() < bytes) {
+            capacity *= 2;
+        }
+        ByteBuffer bigger = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        bigger.put(buffer);
+        buffer = bigger;
+    }
+}
@@ -0,0 +1,78 @@
+package utils;
+
+/**
+ * A rolling hash of the game's state. Every step the game adds its state to
+ * the hash, on top of the hash of all the steps before, so two runs have
+ * the same hash only if they went through the same states. Runs with the
+ * same seed and the same input must end with the same hash - a benchmark or
+ * a bug report can check it with a single number.
+ */
+public class StateHash {
+    private static final long MULTIPLIER = 0xbf58476d1ce4e5b9L;
+    private long value = 0;
+
+    /**
+     * Adds a long to the hash.
+     *
+     * @param v the long
+     */
+    public void add(long v) {
+        long z = (value ^ v) * MULTIPLIER;
+        value = z ^ (z >>> 31);
+    }
+
+    /**
+     * Adds a double to the hash, by its exact bits.
+     *
+     * @param v the double
+     */
+    public void add(double v) {
+        add(Double.doubleToLongBits(v));
+    }
+
+    /**
+     * Adds a boolean to the hash.
+     *
+     * @param v the boolean
+     */
+    public void add(boolean v) {
+        add(v ? 1L : 0L);
+    }
+
+    /**
+     * Returns the hash so far.
+     *
+     * @return the hash
+     */
+    public long getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the hash so far as 16 hex digits.
+     *
+     * @return the hash
+     */
+    @Override
+    public String toString() {
+        return String.format("%016x", value);
+    }
+
+    /**
+     * Saves the hash into a snapshot.
+     *
+     * @param state the snapshot
+     */
+    public void saveState(StateBuffer state) {
+        state.putLong(value);
+    }
+
+    /**
+     * Restores the hash from a snapshot, to go on rolling from there.
+     *
+     * @param state the snapshot
+     */
+    public void restoreState(StateBuffer state) {
+        value = state.getLong();
+    }
+}
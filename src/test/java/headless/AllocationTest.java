@@ -0,0 +1,91 @@
+package headless;
+
+import animation.Animation;
+import animation.GameLevel;
+import biuoop.KeyboardSensor;
+import diagnostics.AllocationMeter;
+import diagnostics.FrameStats;
+import gameplay.GameFlow;
+import org.junit.jupiter.api.Test;
+import utils.Consts;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plays a game without a display, with the ship moving from side to side and
+ * firing, and checks that the game frames allocate no more than a budget of
+ * bytes per frame on average once the game warmed up. A frame may go over
+ * the budget now and then - the score text is rebuilt when the score
+ * changes, and a list grows to a size it never had - but a steady allocation
+ * does not pass. The frames limit, the warm up and the budget are the alloc.*
+ * properties of the build. No high score is saved.
+ */
+class AllocationTest {
+    private static final long DEFAULT_MAX_FRAMES = 20000;
+    private static final long DEFAULT_WARMUP_FRAMES = 500;
+    private static final long DEFAULT_BUDGET_BYTES = 8;
+    private static final int MAX_REPORTED = 20;
+
+    /**
+     * Plays the game and checks the average allocation of its frames.
+     *
+     * @throws IOException problem loading the levels
+     */
+    @Test
+    void gameFramesStayWithinBudget() throws IOException {
+        long maxFrames = Long.getLong("alloc.maxFrames", DEFAULT_MAX_FRAMES);
+        final long warmup = Long.getLong("alloc.warmup",
+                DEFAULT_WARMUP_FRAMES);
+        long budget = Long.getLong("alloc.budget", DEFAULT_BUDGET_BYTES);
+        assertTrue(new AllocationMeter().isSupported(),
+                "Allocations are not measured by this JVM");
+
+        Consts consts = Consts.getInstance();
+        final long[] measured = new long[3]; // frames, bytes, allocating
+        ScriptedKeyboardSensor keyboard = new ScriptedKeyboardSensor()
+                .repeat(KeyboardSensor.LEFT_KEY, 0, 60, 240)
+                .repeat(KeyboardSensor.RIGHT_KEY, 120, 60, 240)
+                .repeat(KeyboardSensor.SPACE_KEY, 0, 1, 2);
+        HeadlessAnimationRunner runner = new HeadlessAnimationRunner(
+                consts.getFramesPerSec(),
+                new NullDrawSurface(consts.getGameWidth(),
+                        consts.getGameHeight()),
+                keyboard, new ScriptedDialogManager("alloc", true)) {
+            private long gameFrames = 0;
+
+            @Override
+            protected void frameDone(Animation animation) {
+                super.frameDone(animation);
+                if (!(animation instanceof GameLevel)
+                        || ++gameFrames <= warmup) {
+                    return;
+                }
+                long bytes = FrameStats.getInstance().getFrameBytes();
+                measured[0]++;
+                measured[1] += bytes;
+                if (bytes > 0 && ++measured[2] <= MAX_REPORTED) {
+                    System.out.println("Game frame " + gameFrames
+                            + " allocated " + bytes + " bytes");
+                }
+            }
+        };
+        runner.setMaxFrames(maxFrames);
+
+        GameFlow flow = new GameFlow(runner, keyboard, consts.getLives());
+        flow.setScoresFile(null);
+        try {
+            flow.runLevels();
+        } catch (IllegalStateException e) {
+            System.out.println(e.getMessage()); // the game outlived the run
+        }
+        String result = measured[0] + " game frames measured, "
+                + measured[2] + " of them allocated " + measured[1]
+                + " bytes in all";
+        System.out.println(result);
+        assertTrue(measured[0] > 0, "No game frame measured");
+        assertTrue(measured[1] <= budget * measured[0], result
+                + ", over the budget of " + budget + " bytes a frame");
+    }
+}
@@ -0,0 +1,77 @@
+package headless;
+
+import animation.Animation;
+import animation.GameLevel;
+import biuoop.KeyboardSensor;
+import diagnostics.HitchDetector;
+import gameplay.GameFlow;
+import org.junit.jupiter.api.Test;
+import utils.Consts;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Plays a whole game without a display, with the ship moving from side to
+ * side and firing, and checks that the number of live bullets stays bounded
+ * all along, and that the game ends within the frames limit. The limits and
+ * the seed are the soak.* properties of the build. Prints the seed and the
+ * final state hash, so a run can be played again with its seed and checked
+ * for the same hash. No high score is saved.
+ */
+class SoakTest {
+    private static final long DEFAULT_MAX_FRAMES = 2000000;
+    private static final int DEFAULT_MAX_BULLETS = 64;
+    private static final long DEFAULT_SEED = 42;
+
+    /**
+     * Plays the game and checks the live bullets on every frame.
+     *
+     * @throws IOException problem loading the levels
+     */
+    @Test
+    void liveBulletsStayBounded() throws IOException {
+        long maxFrames = Long.getLong("soak.maxFrames", DEFAULT_MAX_FRAMES);
+        final int maxBullets = Integer.getInteger("soak.maxBullets",
+                DEFAULT_MAX_BULLETS);
+        final long seed = Long.getLong("soak.seed", DEFAULT_SEED);
+
+        Consts consts = Consts.getInstance();
+        ScriptedKeyboardSensor keyboard = new ScriptedKeyboardSensor()
+                .repeat(KeyboardSensor.LEFT_KEY, 0, 60, 240)
+                .repeat(KeyboardSensor.RIGHT_KEY, 120, 60, 240)
+                .repeat(KeyboardSensor.SPACE_KEY, 0, 1, 2);
+        final HeadlessAnimationRunner runner = new HeadlessAnimationRunner(
+                consts.getFramesPerSec(),
+                new NullDrawSurface(consts.getGameWidth(),
+                        consts.getGameHeight()),
+                keyboard, new ScriptedDialogManager("soak", true)) {
+            @Override
+            protected void frameDone(Animation animation) {
+                super.frameDone(animation);
+                if (animation instanceof GameLevel) {
+                    assertTrue(((GameLevel) animation).getBulletCount()
+                                    <= maxBullets,
+                            "More than " + maxBullets
+                                    + " live bullets at frame "
+                                    + getFrames() + ", seed " + seed);
+                }
+            }
+        };
+        runner.setMaxFrames(maxFrames);
+
+        GameFlow flow = new GameFlow(runner, keyboard, consts.getLives());
+        flow.setSeed(seed);
+        flow.setScoresFile(null);
+        try {
+            flow.runLevels();
+        } catch (IllegalStateException e) {
+            fail("Seed " + seed + ": " + e.getMessage());
+        }
+        System.out.println("Soak: " + runner.getFrames() + " frames, seed "
+                + seed + ", state hash " + flow.getStateHash());
+        System.out.print(HitchDetector.getInstance().dumpReport());
+    }
+}